@@ -0,0 +1,63 @@
+package com.demo.simplified_twitter.benchmark;
+
+import com.demo.simplified_twitter.dto.RoleDto;
+import com.demo.simplified_twitter.dto.UserDto;
+import com.demo.simplified_twitter.entities.Role;
+import com.demo.simplified_twitter.security.JwtKeyRing;
+import com.demo.simplified_twitter.security.JwtSigningAlgorithm;
+import com.demo.simplified_twitter.security.KeyRingJwtEncoder;
+import com.demo.simplified_twitter.service.TokenService;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.security.oauth2.jwt.Jwt;
+import org.springframework.security.oauth2.jwt.JwtDecoder;
+
+import java.time.Duration;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+
+@State(Scope.Benchmark)
+@BenchmarkMode({Mode.Throughput, Mode.AverageTime})
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class JwtBenchmark {
+
+    @Param({"RS256", "ES256", "EdDSA"})
+    private String algorithm;
+
+    private TokenService tokenService;
+    private JwtDecoder jwtDecoder;
+    private UserDto user;
+    private String token;
+
+    @Setup
+    public void setUp() {
+        var keyRing = new JwtKeyRing(JwtSigningAlgorithm.from(algorithm), null, Duration.ZERO, Duration.ofSeconds(900));
+        tokenService = new TokenService("simplified-twitter", 900L, new KeyRingJwtEncoder(keyRing));
+        jwtDecoder = keyRing.jwtDecoder();
+        user = new UserDto(UUID.randomUUID(), "gustavo", "password", Set.of(new RoleDto(2L, Role.Values.BASIC.name())));
+        token = tokenService.getJwt(user).accessToken();
+    }
+
+    @Benchmark
+    public String getJwt() {
+        return tokenService.getJwt(user).accessToken();
+    }
+
+    @Benchmark
+    public Jwt decode() {
+        return jwtDecoder.decode(token);
+    }
+}
@@ -0,0 +1,104 @@
+package com.demo.simplified_twitter.benchmark;
+
+import com.demo.simplified_twitter.config.MessageConverterConfig;
+import com.demo.simplified_twitter.dto.RoleDto;
+import com.demo.simplified_twitter.dto.TweetResponseDto;
+import com.demo.simplified_twitter.dto.UserResponseDto;
+import com.demo.simplified_twitter.entities.Role;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * Payload size and serialization cost of JSON, CBOR and Smile, with and without gzip.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class PayloadBenchmark {
+
+    @Param({"json", "cbor", "smile"})
+    private String format;
+
+    @Param({"tweets", "users"})
+    private String payload;
+
+    private ObjectMapper objectMapper;
+    private Object value;
+
+    @Setup
+    public void setUp() throws IOException {
+        var config = new MessageConverterConfig();
+        objectMapper = switch (format) {
+            case "json" -> Jackson2ObjectMapperBuilder.json().build();
+            case "cbor" -> config.cborHttpMessageConverter(Jackson2ObjectMapperBuilder.json()).getObjectMapper();
+            case "smile" -> config.smileHttpMessageConverter(Jackson2ObjectMapperBuilder.json()).getObjectMapper();
+            default -> throw new IllegalArgumentException(format);
+        };
+        value = payload.equals("tweets") ? tweets(100) : users(1000);
+        System.out.printf("%n%s %s: %d bytes, %d bytes gzipped%n", payload, format, serialize().length, serializeGzipped().length);
+    }
+
+    @Benchmark
+    public byte[] serialize() throws IOException {
+        return objectMapper.writeValueAsBytes(value);
+    }
+
+    @Benchmark
+    public byte[] serializeGzipped() throws IOException {
+        var bytes = new ByteArrayOutputStream();
+        try (var gzip = new GZIPOutputStream(bytes)) {
+            objectMapper.writeValue(gzip, value);
+        }
+        return bytes.toByteArray();
+    }
+
+    private static List<TweetResponseDto> tweets(int count) {
+        List<TweetResponseDto> tweets = new ArrayList<>(count);
+        var authors = new ArrayList<UUID>();
+        for (int i = 0; i < 10; i++) {
+            authors.add(UUID.randomUUID());
+        }
+        var createdAt = Instant.parse("2026-01-01T12:00:00.123456Z");
+        for (int i = 0; i < count; i++) {
+            int author = i % authors.size();
+            tweets.add(new TweetResponseDto(100_000L - i, authors.get(author), "user_" + author,
+                    "Tweet number " + i + " about nothing in particular, padded to a typical length for a short post",
+                    createdAt.minusSeconds(i * 37L)));
+        }
+        return tweets;
+    }
+
+    private static List<UserResponseDto> users(int count) {
+        var basic = new RoleDto(Role.Values.BASIC.getRoleId(), Role.Values.BASIC.name());
+        var admin = new RoleDto(Role.Values.ADMIN.getRoleId(), Role.Values.ADMIN.name());
+        List<UserResponseDto> users = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            users.add(new UserResponseDto(UUID.randomUUID(), "user_" + i, i % 10 == 0 ? Set.of(basic, admin) : Set.of(basic)));
+        }
+        return users;
+    }
+}
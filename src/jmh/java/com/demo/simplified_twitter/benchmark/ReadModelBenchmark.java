@@ -0,0 +1,180 @@
+package com.demo.simplified_twitter.benchmark;
+
+import com.demo.simplified_twitter.dto.RoleDto;
+import com.demo.simplified_twitter.dto.TweetResponseDto;
+import com.demo.simplified_twitter.dto.UserDto;
+import com.demo.simplified_twitter.dto.UserResponseDto;
+import com.demo.simplified_twitter.entities.Role;
+import com.demo.simplified_twitter.entities.Tweet;
+import com.demo.simplified_twitter.entities.User;
+import com.demo.simplified_twitter.repositories.projections.UserCredentialsRow;
+import com.demo.simplified_twitter.repositories.projections.UserRoleRow;
+import org.hibernate.SessionFactory;
+import org.hibernate.boot.model.naming.CamelCaseToUnderscoresNamingStrategy;
+import org.hibernate.cfg.AvailableSettings;
+import org.hibernate.cfg.Configuration;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+
+/**
+ * Managed entities mapped to DTOs versus projections straight into records, on in-memory H2.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class ReadModelBenchmark {
+    private static final int TWEETS_PER_USER = 5;
+    private static final int PAGE_SIZE = 100;
+
+    @Param({"1000"})
+    private int users;
+
+    private SessionFactory sessionFactory;
+
+    @Setup
+    public void setUp() {
+        sessionFactory = new Configuration()
+                .addAnnotatedClass(User.class)
+                .addAnnotatedClass(Role.class)
+                .addAnnotatedClass(Tweet.class)
+                .setProperty(AvailableSettings.JAKARTA_JDBC_URL, "jdbc:h2:mem:read-model;DB_CLOSE_DELAY=-1")
+                .setProperty(AvailableSettings.HBM2DDL_AUTO, "create-drop")
+                .setPhysicalNamingStrategy(new CamelCaseToUnderscoresNamingStrategy())
+                .setProperty(AvailableSettings.STATEMENT_BATCH_SIZE, "50")
+                // Every read must reach the database, as it does on a second-level cache miss
+                .setProperty(AvailableSettings.USE_SECOND_LEVEL_CACHE, "false")
+                .buildSessionFactory();
+        sessionFactory.inTransaction(session -> {
+            var admin = role(Role.Values.ADMIN);
+            var basic = role(Role.Values.BASIC);
+            session.persist(admin);
+            session.persist(basic);
+            for (int i = 0; i < users; i++) {
+                var user = new User();
+                user.setUsername("user_" + i);
+                user.setPassword("$2a$10$7EqJtq98hPqEX7fNZaFWoOhi5BWX4Z8lZ6sZ3e3ZP5P5b6cFBA0Mi");
+                user.setRoles(i % 10 == 0 ? Set.of(basic, admin) : Set.of(basic));
+                session.persist(user);
+                for (int j = 0; j < TWEETS_PER_USER; j++) {
+                    session.persist(new Tweet(null, user, "tweet " + j + " from user_" + i));
+                }
+            }
+        });
+    }
+
+    @TearDown
+    public void tearDown() {
+        sessionFactory.close();
+    }
+
+    @Benchmark
+    public UserDto findUserAsEntity() {
+        return sessionFactory.fromTransaction(session -> toUserDto(session
+                .createSelectionQuery("select u from User u left join fetch u.roles where u.username = :username", User.class)
+                .setParameter("username", "user_500")
+                .getSingleResult()));
+    }
+
+    @Benchmark
+    public UserDto findUserAsRows() {
+        return sessionFactory.fromTransaction(session -> {
+            var rows = session.createSelectionQuery("select new com.demo.simplified_twitter.repositories.projections.UserCredentialsRow(" +
+                            "u.id, u.username, u.password, r.id, r.name) from User u left join u.roles r where u.username = :username",
+                            UserCredentialsRow.class)
+                    .setParameter("username", "user_500")
+                    .getResultList();
+            var first = rows.getFirst();
+            var roles = rows.stream().map(row -> new RoleDto(row.roleId(), row.roleName())).collect(Collectors.toSet());
+            return new UserDto(first.userId(), first.username(), first.password(), roles);
+        });
+    }
+
+    @Benchmark
+    public List<UserResponseDto> listUsersAsEntities() {
+        return sessionFactory.fromTransaction(session -> session
+                .createSelectionQuery("select distinct u from User u left join fetch u.roles", User.class)
+                .getResultList()
+                .stream()
+                .map(user -> new UserResponseDto(user.getId(), user.getUsername(), toUserDto(user).roles()))
+                .toList());
+    }
+
+    @Benchmark
+    public List<UserResponseDto> listUsersAsRows() {
+        return sessionFactory.fromTransaction(session -> {
+            var rows = session.createSelectionQuery("select new com.demo.simplified_twitter.repositories.projections.UserRoleRow(" +
+                            "u.id, u.username, r.id, r.name) from User u left join u.roles r order by u.id", UserRoleRow.class)
+                    .getResultList();
+            List<UserResponseDto> result = new ArrayList<>(users);
+            UUID userId = null;
+            String username = null;
+            Set<RoleDto> roles = new HashSet<>();
+            for (var row : rows) {
+                if (!row.userId().equals(userId)) {
+                    if (userId != null) {
+                        result.add(new UserResponseDto(userId, username, roles));
+                    }
+                    userId = row.userId();
+                    username = row.username();
+                    roles = new HashSet<>();
+                }
+                roles.add(new RoleDto(row.roleId(), row.roleName()));
+            }
+            result.add(new UserResponseDto(userId, username, roles));
+            return result;
+        });
+    }
+
+    @Benchmark
+    public List<TweetResponseDto> latestTweetsAsEntities() {
+        return sessionFactory.fromTransaction(session -> session
+                .createSelectionQuery("select t from Tweet t join fetch t.user order by t.id desc", Tweet.class)
+                .setMaxResults(PAGE_SIZE)
+                .getResultList()
+                .stream()
+                .map(tweet -> new TweetResponseDto(tweet.getId(), tweet.getUser().getId(), tweet.getUser().getUsername(),
+                        tweet.getContent(), tweet.getCreatedAt()))
+                .toList());
+    }
+
+    @Benchmark
+    public List<TweetResponseDto> latestTweetsAsViews() {
+        return sessionFactory.fromTransaction(session -> session
+                .createSelectionQuery("select new com.demo.simplified_twitter.dto.TweetResponseDto(t.id, u.id, u.username, t.content, t.createdAt) " +
+                        "from Tweet t join t.user u order by t.id desc", TweetResponseDto.class)
+                .setMaxResults(PAGE_SIZE)
+                .getResultList());
+    }
+
+    private static UserDto toUserDto(User user) {
+        var roles = user.getRoles().stream().map(role -> new RoleDto(role.getId(), role.getName())).collect(Collectors.toSet());
+        return new UserDto(user.getId(), user.getUsername(), user.getPassword(), roles);
+    }
+
+    private static Role role(Role.Values value) {
+        var role = new Role();
+        role.setName(value.name());
+        return role;
+    }
+}
@@ -0,0 +1,90 @@
+package com.demo.simplified_twitter.benchmark;
+
+import com.demo.simplified_twitter.datasource.ReadYourWrites;
+import com.demo.simplified_twitter.dto.UserDto;
+import com.demo.simplified_twitter.dto.UserResponseDto;
+import com.demo.simplified_twitter.entities.Role;
+import com.demo.simplified_twitter.repositories.UserRepository;
+import com.demo.simplified_twitter.repositories.projections.UserCredentialsRow;
+import com.demo.simplified_twitter.repositories.projections.UserRoleRow;
+import com.demo.simplified_twitter.service.UserService;
+import com.demo.simplified_twitter.service.UsernameFilter;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.lang.reflect.Proxy;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class UserMappingBenchmark {
+
+    @Param({"100", "10000"})
+    private int users;
+
+    private UserService userService;
+
+    @Setup
+    public void setUp() {
+        var basic = role(Role.Values.BASIC);
+        var admin = role(Role.Values.ADMIN);
+        var gustavoId = UUID.randomUUID();
+        var password = "$2a$10$7EqJtq98hPqEX7fNZaFWoOhi5BWX4Z8lZ6sZ3e3ZP5P5b6cFBA0Mi";
+        var credentialRows = List.of(
+                new UserCredentialsRow(gustavoId, "gustavo", password, basic.getId(), basic.getName()),
+                new UserCredentialsRow(gustavoId, "gustavo", password, admin.getId(), admin.getName()));
+
+        List<UserRoleRow> rows = new ArrayList<>(users * 2);
+        for (int i = 0; i < users; i++) {
+            var userId = UUID.randomUUID();
+            rows.add(new UserRoleRow(userId, "user_" + i, basic.getId(), basic.getName()));
+            if (i % 10 == 0) {
+                rows.add(new UserRoleRow(userId, "user_" + i, admin.getId(), admin.getName()));
+            }
+        }
+
+        var userRepository = (UserRepository) Proxy.newProxyInstance(UserRepository.class.getClassLoader(),
+                new Class<?>[]{UserRepository.class}, (proxy, method, args) -> switch (method.getName()) {
+                    case "findCredentialRowsByUsername" -> credentialRows;
+                    case "streamAllRoleRows" -> rows.stream();
+                    default -> throw new UnsupportedOperationException(method.getName());
+                });
+        userService = new UserService(userRepository, null, new UsernameFilter(userRepository, null, new SimpleMeterRegistry(), false, 1, 0.01, Duration.ZERO, Duration.ZERO),
+                new ReadYourWrites(Duration.ofSeconds(5), 1), null, false);
+    }
+
+    @Benchmark
+    public UserDto findByUsername() {
+        return userService.findByUsername("gustavo");
+    }
+
+    @Benchmark
+    public List<UserResponseDto> findAllUsers() {
+        return userService.findAllUsers();
+    }
+
+    private Role role(Role.Values value) {
+        var role = new Role();
+        role.setId(value.getRoleId());
+        role.setName(value.name());
+        return role;
+    }
+}
@@ -0,0 +1,224 @@
+package com.demo.simplified_twitter.loadtest;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.HdrHistogram.ConcurrentHistogram;
+import org.HdrHistogram.Histogram;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.web.server.LocalServerPort;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.io.IOException;
+import java.io.PrintStream;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.Base64;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.Map;
+import java.util.SequencedSet;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Run with {@code mvn -Pload-test verify}, tuned through the {@code loadtest.*} properties.
+ */
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT)
+@ActiveProfiles("loadtest")
+class MixedWorkloadIT {
+    private static final long HIGHEST_TRACKABLE_MICROS = TimeUnit.MINUTES.toMicros(1);
+
+    @LocalServerPort
+    private int port;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Value("${loadtest.users}")
+    private int users;
+    @Value("${loadtest.password}")
+    private String password;
+    @Value("${loadtest.concurrency}")
+    private int concurrency;
+    @Value("${loadtest.warmup}")
+    private Duration warmup;
+    @Value("${loadtest.duration}")
+    private Duration duration;
+    @Value("${loadtest.mix.login}")
+    private int loginWeight;
+    @Value("${loadtest.mix.create-tweet}")
+    private int createTweetWeight;
+    @Value("${loadtest.mix.list-tweets}")
+    private int listTweetsWeight;
+    @Value("${loadtest.mix.delete-tweet}")
+    private int deleteTweetWeight;
+    @Value("${loadtest.report-dir}")
+    private Path reportDir;
+
+    private final Map<String, EndpointStats> stats = new ConcurrentHashMap<>();
+    private HttpClient httpClient;
+    private volatile boolean recording;
+
+    @Test
+    @DisplayName("Should serve the mixed workload without errors")
+    void shouldServeTheMixedWorkloadWithoutErrors() throws Exception {
+        httpClient = HttpClient.newBuilder().version(HttpClient.Version.HTTP_1_1).build();
+        long warmupEnd = System.nanoTime() + warmup.toNanos();
+        long end = warmupEnd + duration.toNanos();
+        try (var workers = Executors.newVirtualThreadPerTaskExecutor()) {
+            for (int i = 0; i < concurrency; i++) {
+                var username = "loadtest_" + (i % users + 1);
+                workers.submit(() -> {
+                    runWorker(username, end);
+                    return null;
+                });
+            }
+            TimeUnit.NANOSECONDS.sleep(warmupEnd - System.nanoTime());
+            stats.values().forEach(EndpointStats::reset);
+            recording = true;
+        }
+
+        report();
+        stats.forEach((endpoint, endpointStats) -> assertThat(endpointStats.errors.sum()).as(endpoint + " errors").isZero());
+    }
+
+    private void runWorker(String username, long end) throws Exception {
+        var session = login(username);
+        SequencedSet<Long> ownTweetIds = new LinkedHashSet<>();
+        int totalWeight = loginWeight + createTweetWeight + listTweetsWeight + deleteTweetWeight;
+        var random = ThreadLocalRandom.current();
+        while (System.nanoTime() < end) {
+            int roll = random.nextInt(totalWeight);
+            if ((roll -= loginWeight) < 0) {
+                session = login(username);
+            } else if ((roll -= createTweetWeight) < 0) {
+                call("POST /tweets", post("/tweets", session.token(), "{\"content\":\"load test " + random.nextLong() + "\"}"));
+            } else if ((roll -= listTweetsWeight) < 0 || ownTweetIds.isEmpty()) {
+                var page = call("GET /users/{id}/tweets", get("/users/" + session.userId() + "/tweets?limit=50", session.token()));
+                if (page != null) {
+                    page.path("items").forEach(item -> ownTweetIds.add(item.get("id").asLong()));
+                }
+            } else {
+                call("DELETE /tweets/{id}", delete("/tweets/" + ownTweetIds.removeFirst(), session.token()));
+            }
+        }
+    }
+
+    private Session login(String username) throws Exception {
+        var body = objectMapper.writeValueAsString(Map.of("username", username, "password", password));
+        var response = call("POST /login", post("/login", null, body));
+        if (response == null) {
+            throw new IllegalStateException("Could not log in as " + username);
+        }
+        var token = response.get("accessToken").asText();
+        var claims = objectMapper.readTree(Base64.getUrlDecoder().decode(token.split("\\.")[1]));
+        return new Session(token, claims.get("sub").asText());
+    }
+
+    private JsonNode call(String endpoint, HttpRequest request) throws Exception {
+        var endpointStats = stats.computeIfAbsent(endpoint, key -> new EndpointStats());
+        while (true) {
+            long start = System.nanoTime();
+            HttpResponse<String> response;
+            try {
+                response = httpClient.send(request, HttpResponse.BodyHandlers.ofString());
+            } catch (IOException e) {
+                endpointStats.record(System.nanoTime() - start, Outcome.ERROR, recording);
+                return null;
+            }
+            var retryAfter = response.headers().firstValueAsLong("Retry-After");
+            if (response.statusCode() == 503 && retryAfter.isPresent()) {
+                endpointStats.record(System.nanoTime() - start, Outcome.SHED, recording);
+                TimeUnit.SECONDS.sleep(retryAfter.getAsLong());
+                continue;
+            }
+            boolean success = response.statusCode() / 100 == 2;
+            endpointStats.record(System.nanoTime() - start, success ? Outcome.SUCCESS : Outcome.ERROR, recording);
+            return success && !response.body().isEmpty() ? objectMapper.readTree(response.body()) : null;
+        }
+    }
+
+    private HttpRequest post(String path, String token, String body) {
+        return request(path, token).header("Content-Type", "application/json").POST(HttpRequest.BodyPublishers.ofString(body)).build();
+    }
+
+    private HttpRequest get(String path, String token) {
+        return request(path, token).GET().build();
+    }
+
+    private HttpRequest delete(String path, String token) {
+        return request(path, token).DELETE().build();
+    }
+
+    private HttpRequest.Builder request(String path, String token) {
+        var builder = HttpRequest.newBuilder(URI.create("http://localhost:" + port + "/api/v1" + path)).timeout(Duration.ofSeconds(30));
+        return token == null ? builder : builder.header("Authorization", "Bearer " + token);
+    }
+
+    private void report() throws IOException {
+        Files.createDirectories(reportDir);
+        double seconds = duration.toNanos() / 1e9;
+        System.out.printf("%n%d workers, %s measured after %s warmup%n", concurrency, duration, warmup);
+        System.out.printf("%-24s %9s %7s %7s %9s %9s %9s %9s %9s %9s%n", "endpoint", "requests", "errors", "shed", "req/s", "p50 ms", "p95 ms", "p99 ms", "p999 ms", "max ms");
+        var sorted = new LinkedHashMap<String, EndpointStats>();
+        stats.keySet().stream().sorted().forEach(endpoint -> sorted.put(endpoint, stats.get(endpoint)));
+        for (var entry : sorted.entrySet()) {
+            Histogram latencies = entry.getValue().latencies;
+            System.out.printf("%-24s %9d %7d %7d %9.1f %9.2f %9.2f %9.2f %9.2f %9.2f%n", entry.getKey(), latencies.getTotalCount(),
+                    entry.getValue().errors.sum(), entry.getValue().shed.sum(), latencies.getTotalCount() / seconds,
+                    latencies.getValueAtPercentile(50) / 1000.0, latencies.getValueAtPercentile(95) / 1000.0,
+                    latencies.getValueAtPercentile(99) / 1000.0, latencies.getValueAtPercentile(99.9) / 1000.0,
+                    latencies.getMaxValue() / 1000.0);
+            var file = reportDir.resolve(entry.getKey().replaceAll("[^A-Za-z]+", "-").replaceAll("^-|-$", "") + ".hgrm");
+            try (var out = new PrintStream(Files.newOutputStream(file))) {
+                latencies.outputPercentileDistribution(out, 1000.0);
+            }
+        }
+        System.out.println("Latency distributions (ms) written to " + reportDir.toAbsolutePath());
+    }
+
+    private record Session(String token, String userId) {
+    }
+
+    private enum Outcome {
+        SUCCESS, SHED, ERROR
+    }
+
+    private static class EndpointStats {
+        private final ConcurrentHistogram latencies = new ConcurrentHistogram(HIGHEST_TRACKABLE_MICROS, 3);
+        private final LongAdder errors = new LongAdder();
+        private final LongAdder shed = new LongAdder();
+
+        void record(long elapsedNanos, Outcome outcome, boolean recording) {
+            if (!recording) {
+                return;
+            }
+            latencies.recordValue(Math.min(TimeUnit.NANOSECONDS.toMicros(elapsedNanos), HIGHEST_TRACKABLE_MICROS));
+            if (outcome == Outcome.ERROR) {
+                errors.increment();
+            } else if (outcome == Outcome.SHED) {
+                shed.increment();
+            }
+        }
+
+        void reset() {
+            latencies.reset();
+            errors.reset();
+            shed.reset();
+        }
+    }
+}
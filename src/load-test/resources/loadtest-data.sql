@@ -0,0 +1,4 @@
+INSERT INTO tb_users (user_id, username, password)
+SELECT RANDOM_UUID(), 'loadtest_' || n, '$2a$10$ANCwwKMMsEuoopWmRsIUL.MQ09QqtO0tz/rTbDXbjhKooHLKAeJHO' FROM SYSTEM_RANGE(1, 500) AS r(n);
+INSERT INTO tb_user_roles (role_id, user_id)
+SELECT 2, user_id FROM tb_users WHERE username LIKE 'loadtest_%';
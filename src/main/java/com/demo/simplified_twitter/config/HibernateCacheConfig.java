@@ -0,0 +1,71 @@
+package com.demo.simplified_twitter.config;
+
+import com.github.benmanes.caffeine.jcache.configuration.CaffeineConfiguration;
+import com.github.benmanes.caffeine.jcache.spi.CaffeineCachingProvider;
+import org.hibernate.cache.jcache.ConfigSettings;
+import org.hibernate.cache.spi.RegionFactory;
+import org.hibernate.cfg.AvailableSettings;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.autoconfigure.orm.jpa.HibernatePropertiesCustomizer;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import javax.cache.CacheManager;
+import javax.cache.Caching;
+import java.time.Duration;
+import java.util.OptionalLong;
+
+@Configuration
+public class HibernateCacheConfig {
+    public static final String USERS_REGION = "users";
+    public static final String USER_ROLES_REGION = "users.roles";
+    public static final String ROLES_REGION = "roles";
+
+    @Value("${jpa.second-level-cache.entities.maximum-size}")
+    private long entitiesMaximumSize;
+
+    @Value("${jpa.second-level-cache.entities.ttl}")
+    private Duration entitiesTtl;
+
+    @Value("${jpa.second-level-cache.queries.maximum-size}")
+    private long queriesMaximumSize;
+
+    @Value("${jpa.second-level-cache.queries.ttl}")
+    private Duration queriesTtl;
+
+    @Bean
+    @ConditionalOnProperty(name = "jpa.second-level-cache.enabled", havingValue = "true")
+    public CacheManager hibernateCacheManager() {
+        var cacheManager = Caching.getCachingProvider(CaffeineCachingProvider.class.getName()).getCacheManager();
+        cacheManager.createCache(USERS_REGION, bounded(entitiesMaximumSize, entitiesTtl));
+        cacheManager.createCache(USER_ROLES_REGION, bounded(entitiesMaximumSize, entitiesTtl));
+        cacheManager.createCache(ROLES_REGION, bounded(entitiesMaximumSize, entitiesTtl));
+        cacheManager.createCache(RegionFactory.DEFAULT_QUERY_RESULTS_REGION_UNQUALIFIED_NAME, bounded(queriesMaximumSize, queriesTtl));
+        // Evicting a table's last update time would let the query cache serve results older than that update
+        cacheManager.createCache(RegionFactory.DEFAULT_UPDATE_TIMESTAMPS_REGION_UNQUALIFIED_NAME, new CaffeineConfiguration<>());
+        return cacheManager;
+    }
+
+    @Bean
+    public HibernatePropertiesCustomizer secondLevelCacheCustomizer(ObjectProvider<CacheManager> hibernateCacheManager) {
+        return properties -> {
+            var cacheManager = hibernateCacheManager.getIfAvailable();
+            properties.put(AvailableSettings.USE_SECOND_LEVEL_CACHE, cacheManager != null);
+            properties.put(AvailableSettings.USE_QUERY_CACHE, cacheManager != null);
+            if (cacheManager != null) {
+                properties.put(AvailableSettings.CACHE_REGION_FACTORY, "jcache");
+                properties.put(ConfigSettings.CACHE_MANAGER, cacheManager);
+                properties.put(ConfigSettings.MISSING_CACHE_STRATEGY, "fail");
+            }
+        };
+    }
+
+    private static CaffeineConfiguration<Object, Object> bounded(long maximumSize, Duration ttl) {
+        var configuration = new CaffeineConfiguration<>();
+        configuration.setMaximumSize(OptionalLong.of(maximumSize));
+        configuration.setExpireAfterWrite(OptionalLong.of(ttl.toNanos()));
+        return configuration;
+    }
+}
@@ -0,0 +1,21 @@
+package com.demo.simplified_twitter.config;
+
+import com.demo.simplified_twitter.metrics.RequestStatementsFilter;
+import io.micrometer.core.aop.TimedAspect;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+@Configuration
+public class MetricsConfig {
+
+    @Bean
+    public TimedAspect timedAspect(MeterRegistry meterRegistry) {
+        return new TimedAspect(meterRegistry);
+    }
+
+    @Bean
+    public RequestStatementsFilter requestStatementsFilter(MeterRegistry meterRegistry) {
+        return new RequestStatementsFilter(meterRegistry);
+    }
+}
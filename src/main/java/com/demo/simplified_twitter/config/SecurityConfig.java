@@ -1,10 +1,20 @@
 package com.demo.simplified_twitter.config;
 
-import com.nimbusds.jose.jwk.JWK;
-import com.nimbusds.jose.jwk.JWKSet;
-import com.nimbusds.jose.jwk.RSAKey;
-import com.nimbusds.jose.jwk.source.ImmutableJWKSet;
+import com.demo.simplified_twitter.security.BoundedPasswordEncoder;
+import com.demo.simplified_twitter.security.CachingJwtDecoder;
+import com.demo.simplified_twitter.security.JwtKeyRing;
+import com.demo.simplified_twitter.security.JwtKeyStore;
+import com.demo.simplified_twitter.security.JwtSigningAlgorithm;
+import com.demo.simplified_twitter.security.KeyRingJwtEncoder;
+import com.demo.simplified_twitter.security.RevocationCheckingJwtDecoder;
+import com.demo.simplified_twitter.security.TimedJwtDecoder;
+import com.demo.simplified_twitter.security.TimedPasswordEncoder;
+import com.demo.simplified_twitter.security.TokenDenylist;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.springframework.beans.factory.ObjectProvider;
 import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.actuate.autoconfigure.security.servlet.EndpointRequest;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 import org.springframework.http.HttpMethod;
@@ -18,12 +28,12 @@ import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
 import org.springframework.security.crypto.password.PasswordEncoder;
 import org.springframework.security.oauth2.jwt.JwtDecoder;
 import org.springframework.security.oauth2.jwt.JwtEncoder;
-import org.springframework.security.oauth2.jwt.NimbusJwtDecoder;
-import org.springframework.security.oauth2.jwt.NimbusJwtEncoder;
 import org.springframework.security.web.SecurityFilterChain;
 
+import java.security.KeyPair;
 import java.security.interfaces.RSAPrivateKey;
 import java.security.interfaces.RSAPublicKey;
+import java.time.Duration;
 
 @EnableWebSecurity
 @EnableMethodSecurity(securedEnabled = true)
@@ -36,11 +46,51 @@ public class SecurityConfig {
     @Value("${jwt.private-key}")
     private RSAPrivateKey rsaPrivateKey;
 
+    @Value("${jwt.token.expires-in}")
+    private long jwtTokenExpiresIn;
+
+    @Value("${jwt.signing.algorithm}")
+    private String jwtSigningAlgorithm;
+
+    @Value("${jwt.signing.rotation-interval}")
+    private Duration jwtSigningRotationInterval;
+
+    @Value("${jwt.signing.sync-interval}")
+    private Duration jwtSigningSyncInterval;
+
+    @Value("${jwt.jwks.max-age}")
+    private Duration jwksMaxAge;
+
+    @Value("${jwt.decoder.cache.enabled}")
+    private boolean jwtDecoderCacheEnabled;
+
+    @Value("${jwt.decoder.cache.maximum-size}")
+    private long jwtDecoderCacheMaximumSize;
+
+    @Value("${jwt.revocation.expected-revocations}")
+    private long jwtRevocationExpectedRevocations;
+
+    @Value("${jwt.revocation.false-positive-probability}")
+    private double jwtRevocationFalsePositiveProbability;
+
+    @Value("${password.hashing.threads}")
+    private int passwordHashingThreads;
+
+    @Value("${password.hashing.queue-capacity}")
+    private int passwordHashingQueueCapacity;
+
+    @Value("${password.hashing.max-wait}")
+    private Duration passwordHashingMaxWait;
+
     @Bean
     public SecurityFilterChain securityFilterChain(HttpSecurity http) throws Exception {
         http.authorizeHttpRequests(authorize -> {
             authorize.requestMatchers(HttpMethod.POST, "/login").permitAll();
+            authorize.requestMatchers(HttpMethod.POST, "/token/refresh").permitAll();
             authorize.requestMatchers(HttpMethod.POST, "/users").permitAll();
+            authorize.requestMatchers(HttpMethod.GET, "/.well-known/jwks.json").permitAll();
+            authorize.requestMatchers(EndpointRequest.to("health", "prometheus")).permitAll();
+            authorize.requestMatchers(EndpointRequest.to("roles")).hasAuthority("SCOPE_ADMIN");
             authorize.anyRequest().authenticated();
         });
         http.csrf(AbstractHttpConfigurer::disable);
@@ -50,18 +100,51 @@ public class SecurityConfig {
     }
 
     @Bean
-    public JwtEncoder jwtEncoder() {
-        JWK jwk = new RSAKey.Builder(this.rsaPublicKey).privateKey(this.rsaPrivateKey).build();
-        return new NimbusJwtEncoder(new ImmutableJWKSet<>(new JWKSet(jwk)));
+    public JwtKeyRing jwtKeyRing(ObjectProvider<JwtKeyStore> jwtKeyStore) {
+        var algorithm = JwtSigningAlgorithm.from(jwtSigningAlgorithm);
+        // The configured RSA key pair stays the initial RS256 key so that existing verifiers keep working
+        var initialKeyPair = algorithm == JwtSigningAlgorithm.RS256 ? new KeyPair(rsaPublicKey, rsaPrivateKey) : null;
+        // A new key must reach every node's store view and then every client's cached JWKS before it signs
+        var publishAhead = jwksMaxAge.plus(jwtSigningSyncInterval);
+        // Web slice tests have no database, so they fall back to keys private to the process
+        var store = jwtKeyStore.getIfAvailable(JwtKeyStore::inMemory);
+        return new JwtKeyRing(algorithm, initialKeyPair, store, jwtSigningRotationInterval, publishAhead,
+                jwtSigningSyncInterval, Duration.ofSeconds(jwtTokenExpiresIn));
+    }
+
+    @Bean
+    public JwtEncoder jwtEncoder(JwtKeyRing jwtKeyRing) {
+        return new KeyRingJwtEncoder(jwtKeyRing);
+    }
+
+    @Bean
+    public TokenDenylist tokenDenylist(ObjectProvider<MeterRegistry> meterRegistry) {
+        var denylist = new TokenDenylist(jwtRevocationExpectedRevocations, jwtRevocationFalsePositiveProbability);
+        meterRegistry.ifAvailable(denylist::bindTo);
+        return denylist;
     }
 
     @Bean
-    public JwtDecoder jwtDecoder() {
-        return NimbusJwtDecoder.withPublicKey(rsaPublicKey).build();
+    public JwtDecoder jwtDecoder(JwtKeyRing jwtKeyRing, TokenDenylist tokenDenylist, ObjectProvider<MeterRegistry> meterRegistry) {
+        JwtDecoder decoder = jwtKeyRing.jwtDecoder();
+        var registry = meterRegistry.getIfAvailable();
+        if (jwtDecoderCacheEnabled) {
+            var cachingDecoder = new CachingJwtDecoder(decoder, jwtDecoderCacheMaximumSize);
+            if (registry != null) {
+                cachingDecoder.bindTo(registry);
+            }
+            decoder = cachingDecoder;
+        }
+        // Checked outside the cache so that a revoked token is rejected even while its decoded form is cached
+        decoder = new RevocationCheckingJwtDecoder(decoder, tokenDenylist);
+        return registry == null ? decoder : new TimedJwtDecoder(decoder, registry);
     }
 
     @Bean
-    public PasswordEncoder passwordEncoder() {
-        return new BCryptPasswordEncoder();
+    public PasswordEncoder passwordEncoder(ObjectProvider<MeterRegistry> meterRegistry) {
+        var registry = meterRegistry.getIfAvailable(SimpleMeterRegistry::new);
+        var passwordEncoder = new TimedPasswordEncoder(new BCryptPasswordEncoder(), registry);
+        int threads = passwordHashingThreads > 0 ? passwordHashingThreads : Runtime.getRuntime().availableProcessors();
+        return new BoundedPasswordEncoder(passwordEncoder, threads, passwordHashingQueueCapacity, passwordHashingMaxWait, registry);
     }
 }
@@ -0,0 +1,27 @@
+package com.demo.simplified_twitter.controller;
+
+import org.springframework.http.CacheControl;
+import org.springframework.http.HttpHeaders;
+import org.springframework.web.context.request.ServletWebRequest;
+
+final class ConditionalRequests {
+
+    private ConditionalRequests() {
+    }
+
+    /**
+     * The caller returns without a body when this answers 304.
+     */
+    static boolean notModified(ServletWebRequest request, String etag) {
+        var response = request.getResponse();
+        if (response != null) {
+            response.setHeader(HttpHeaders.CACHE_CONTROL, CacheControl.noCache().cachePrivate().getHeaderValue());
+            response.addHeader(HttpHeaders.VARY, HttpHeaders.ACCEPT);
+        }
+        var accept = request.getHeader(HttpHeaders.ACCEPT);
+        if (accept != null) {
+            etag = etag.substring(0, etag.length() - 1) + "." + Integer.toHexString(accept.hashCode()) + "\"";
+        }
+        return request.checkNotModified(etag);
+    }
+}
@@ -0,0 +1,30 @@
+package com.demo.simplified_twitter.controller;
+
+import com.demo.simplified_twitter.security.JwtKeyRing;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.CacheControl;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RestController;
+
+import java.time.Duration;
+import java.util.Map;
+
+@RestController
+public class JwksController {
+
+    private final JwtKeyRing jwtKeyRing;
+    private final Duration maxAge;
+
+    public JwksController(JwtKeyRing jwtKeyRing, @Value("${jwt.jwks.max-age}") Duration maxAge) {
+        this.jwtKeyRing = jwtKeyRing;
+        this.maxAge = maxAge;
+    }
+
+    @GetMapping("/.well-known/jwks.json")
+    public ResponseEntity<Map<String, Object>> jwks() {
+        return ResponseEntity.ok()
+                .cacheControl(CacheControl.maxAge(maxAge))
+                .body(jwtKeyRing.publicJwkSet().toJSONObject());
+    }
+}
@@ -0,0 +1,32 @@
+package com.demo.simplified_twitter.controller;
+
+import com.demo.simplified_twitter.dto.RoleDto;
+import com.demo.simplified_twitter.service.RoleRegistry;
+import org.springframework.boot.actuate.endpoint.annotation.Endpoint;
+import org.springframework.boot.actuate.endpoint.annotation.ReadOperation;
+import org.springframework.boot.actuate.endpoint.annotation.WriteOperation;
+import org.springframework.stereotype.Component;
+
+import java.util.Collection;
+
+@Component
+@Endpoint(id = "roles")
+public class RolesEndpoint {
+
+    private final RoleRegistry roleRegistry;
+
+    public RolesEndpoint(RoleRegistry roleRegistry) {
+        this.roleRegistry = roleRegistry;
+    }
+
+    @ReadOperation
+    public Collection<RoleDto> roles() {
+        return roleRegistry.all();
+    }
+
+    @WriteOperation
+    public Collection<RoleDto> refresh() {
+        roleRegistry.refresh();
+        return roleRegistry.all();
+    }
+}
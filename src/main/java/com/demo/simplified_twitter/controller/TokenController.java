@@ -2,8 +2,11 @@ package com.demo.simplified_twitter.controller;
 
 import com.demo.simplified_twitter.dto.JwtDto;
 import com.demo.simplified_twitter.dto.LoginRequestDto;
+import com.demo.simplified_twitter.dto.RefreshTokenRequestDto;
 import com.demo.simplified_twitter.service.LoginService;
+import com.demo.simplified_twitter.service.TokenRevocationService;
 import org.springframework.http.HttpStatus;
+import org.springframework.security.oauth2.server.resource.authentication.JwtAuthenticationToken;
 import org.springframework.web.bind.annotation.PostMapping;
 import org.springframework.web.bind.annotation.RequestBody;
 import org.springframework.web.bind.annotation.RequestMapping;
@@ -15,9 +18,11 @@ import org.springframework.web.bind.annotation.RestController;
 public class TokenController {
 
     private final LoginService loginService;
+    private final TokenRevocationService tokenRevocationService;
 
-    public TokenController(LoginService loginService) {
+    public TokenController(LoginService loginService, TokenRevocationService tokenRevocationService) {
         this.loginService = loginService;
+        this.tokenRevocationService = tokenRevocationService;
     }
 
     @PostMapping("/login")
@@ -25,4 +30,16 @@ public class TokenController {
     public JwtDto login(@RequestBody LoginRequestDto loginRequest) {
         return loginService.login(loginRequest);
     }
+
+    @PostMapping("/token/refresh")
+    @ResponseStatus(HttpStatus.OK)
+    public JwtDto refresh(@RequestBody RefreshTokenRequestDto refreshTokenRequest) {
+        return loginService.refresh(refreshTokenRequest);
+    }
+
+    @PostMapping("/token/revoke")
+    @ResponseStatus(HttpStatus.NO_CONTENT)
+    public void revoke(JwtAuthenticationToken jwtAuthenticationToken) {
+        tokenRevocationService.revoke(jwtAuthenticationToken.getToken());
+    }
 }
@@ -1,31 +1,73 @@
 package com.demo.simplified_twitter.controller;
 
+import com.demo.simplified_twitter.dto.AcceptedTweetDto;
+import com.demo.simplified_twitter.dto.BatchTweetResponseDto;
 import com.demo.simplified_twitter.dto.CreateTweetRequestDto;
+import com.demo.simplified_twitter.dto.CursorPageDto;
+import com.demo.simplified_twitter.dto.DeleteTweetsResponseDto;
+import com.demo.simplified_twitter.dto.EngagementDto;
+import com.demo.simplified_twitter.dto.TweetResponseDto;
+import com.demo.simplified_twitter.entities.Engagement;
+import com.demo.simplified_twitter.service.ChangeVersions;
+import com.demo.simplified_twitter.service.EngagementService;
+import com.demo.simplified_twitter.service.TimelineService;
 import com.demo.simplified_twitter.service.TweetService;
+import com.demo.simplified_twitter.service.TweetStreamHub;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
 import org.springframework.security.oauth2.server.resource.authentication.JwtAuthenticationToken;
 import org.springframework.web.bind.annotation.DeleteMapping;
+import org.springframework.web.bind.annotation.GetMapping;
 import org.springframework.web.bind.annotation.PathVariable;
 import org.springframework.web.bind.annotation.PostMapping;
 import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RequestHeader;
 import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.ResponseStatus;
 import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.context.request.ServletWebRequest;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.util.List;
+import java.util.UUID;
 
 @RestController
 @RequestMapping("/tweets")
 public class TweetController {
 
     private final TweetService tweetService;
+    private final TimelineService timelineService;
+    private final ChangeVersions changeVersions;
+    private final TweetStreamHub tweetStreamHub;
+    private final EngagementService engagementService;
 
-    public TweetController(TweetService tweetService) {
+    public TweetController(TweetService tweetService,
+                           TimelineService timelineService,
+                           ChangeVersions changeVersions,
+                           TweetStreamHub tweetStreamHub,
+                           EngagementService engagementService) {
         this.tweetService = tweetService;
+        this.timelineService = timelineService;
+        this.changeVersions = changeVersions;
+        this.tweetStreamHub = tweetStreamHub;
+        this.engagementService = engagementService;
     }
 
     @PostMapping
-    @ResponseStatus(HttpStatus.CREATED)
-    public void createTweet(@RequestBody CreateTweetRequestDto createTweetRequest, JwtAuthenticationToken jwtAuthenticationToken) {
+    public ResponseEntity<AcceptedTweetDto> createTweet(@RequestBody CreateTweetRequestDto createTweetRequest, JwtAuthenticationToken jwtAuthenticationToken) {
+        if (tweetService.isAsyncIngestEnabled()) {
+            return ResponseEntity.accepted().body(tweetService.enqueueTweet(createTweetRequest, jwtAuthenticationToken));
+        }
         tweetService.createTweet(createTweetRequest, jwtAuthenticationToken);
+        return ResponseEntity.status(HttpStatus.CREATED).build();
+    }
+
+    @PostMapping("/batch")
+    @ResponseStatus(HttpStatus.OK)
+    public BatchTweetResponseDto createTweets(@RequestBody List<CreateTweetRequestDto> createTweetRequests, JwtAuthenticationToken jwtAuthenticationToken) {
+        return tweetService.createTweets(createTweetRequests, jwtAuthenticationToken);
     }
 
     @DeleteMapping("/{id}")
@@ -34,4 +76,69 @@ public class TweetController {
         tweetService.deleteTweet(id, jwtAuthenticationToken);
     }
 
+    @DeleteMapping
+    @ResponseStatus(HttpStatus.OK)
+    public DeleteTweetsResponseDto deleteTweets(@RequestParam List<Long> ids, JwtAuthenticationToken jwtAuthenticationToken) {
+        return tweetService.deleteTweets(ids, jwtAuthenticationToken);
+    }
+
+    @PostMapping("/{id}/like")
+    @ResponseStatus(HttpStatus.CREATED)
+    public void like(@PathVariable Long id, JwtAuthenticationToken jwtAuthenticationToken) {
+        engagementService.engage(id, Engagement.Type.LIKE, jwtAuthenticationToken);
+    }
+
+    @DeleteMapping("/{id}/like")
+    @ResponseStatus(HttpStatus.OK)
+    public void unlike(@PathVariable Long id, JwtAuthenticationToken jwtAuthenticationToken) {
+        engagementService.disengage(id, Engagement.Type.LIKE, jwtAuthenticationToken);
+    }
+
+    @PostMapping("/{id}/retweet")
+    @ResponseStatus(HttpStatus.CREATED)
+    public void retweet(@PathVariable Long id, JwtAuthenticationToken jwtAuthenticationToken) {
+        engagementService.engage(id, Engagement.Type.RETWEET, jwtAuthenticationToken);
+    }
+
+    @DeleteMapping("/{id}/retweet")
+    @ResponseStatus(HttpStatus.OK)
+    public void unretweet(@PathVariable Long id, JwtAuthenticationToken jwtAuthenticationToken) {
+        engagementService.disengage(id, Engagement.Type.RETWEET, jwtAuthenticationToken);
+    }
+
+    @GetMapping("/engagement")
+    public List<EngagementDto> findEngagement(@RequestParam List<Long> ids, JwtAuthenticationToken jwtAuthenticationToken) {
+        return engagementService.findEngagement(ids, jwtAuthenticationToken);
+    }
+
+    @GetMapping
+    public CursorPageDto<TweetResponseDto> findLatestTweets(@RequestParam(required = false) String cursor,
+                                                            @RequestParam(defaultValue = "20") int limit,
+                                                            ServletWebRequest request) {
+        if (ConditionalRequests.notModified(request, changeVersions.tweetsTag())) {
+            return null;
+        }
+        return tweetService.findLatestTweets(cursor, limit);
+    }
+
+    @GetMapping("/timeline")
+    public List<TweetResponseDto> getHomeTimeline(@RequestParam(required = false) Long before,
+                                                  @RequestParam(defaultValue = "20") int limit,
+                                                  JwtAuthenticationToken jwtAuthenticationToken,
+                                                  ServletWebRequest request) {
+        var userId = UUID.fromString(jwtAuthenticationToken.getName());
+        if (ConditionalRequests.notModified(request, changeVersions.timelineTag(userId, timelineService.following(userId)))) {
+            return null;
+        }
+        return timelineService.getHomeTimeline(userId, before, limit);
+    }
+
+    @GetMapping(path = "/stream", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    public SseEmitter streamTimeline(@RequestHeader(name = "Last-Event-ID", required = false) String lastEventId,
+                                     JwtAuthenticationToken jwtAuthenticationToken) {
+        var token = jwtAuthenticationToken.getToken();
+        return tweetStreamHub.subscribe(UUID.fromString(jwtAuthenticationToken.getName()), token.getId(), token.getExpiresAt(),
+                lastEventId != null);
+    }
+
 }
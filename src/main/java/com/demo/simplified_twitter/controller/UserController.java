@@ -1,27 +1,56 @@
 package com.demo.simplified_twitter.controller;
 
 import com.demo.simplified_twitter.dto.CreateUserRequestDto;
+import com.demo.simplified_twitter.dto.CursorPageDto;
+import com.demo.simplified_twitter.dto.TweetResponseDto;
 import com.demo.simplified_twitter.dto.UserResponseDto;
+import com.demo.simplified_twitter.service.ChangeVersions;
+import com.demo.simplified_twitter.service.FollowService;
+import com.demo.simplified_twitter.service.TweetService;
 import com.demo.simplified_twitter.service.UserService;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import jakarta.servlet.http.HttpServletResponse;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.security.access.prepost.PreAuthorize;
+import org.springframework.security.oauth2.server.resource.authentication.JwtAuthenticationToken;
+import org.springframework.web.bind.annotation.DeleteMapping;
 import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
 import org.springframework.web.bind.annotation.PostMapping;
 import org.springframework.web.bind.annotation.RequestBody;
 import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.ResponseStatus;
 import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.context.request.ServletWebRequest;
 
+import java.io.IOException;
+import java.io.UncheckedIOException;
 import java.util.List;
+import java.util.UUID;
 
 @RestController
 @RequestMapping("/users")
 public class UserController {
 
     private final UserService userService;
+    private final FollowService followService;
+    private final TweetService tweetService;
+    private final ChangeVersions changeVersions;
+    private final ObjectMapper objectMapper;
 
-    public UserController(UserService userService) {
+    public UserController(UserService userService,
+                          FollowService followService,
+                          TweetService tweetService,
+                          ChangeVersions changeVersions,
+                          ObjectMapper objectMapper) {
         this.userService = userService;
+        this.followService = followService;
+        this.tweetService = tweetService;
+        this.changeVersions = changeVersions;
+        this.objectMapper = objectMapper;
     }
 
     @PostMapping
@@ -31,10 +60,67 @@ public class UserController {
     }
 
     @GetMapping
-    @ResponseStatus(HttpStatus.OK)
     @PreAuthorize("hasAuthority('SCOPE_ADMIN')")
-    public List<UserResponseDto> findAllUsers() {
+    public List<UserResponseDto> findAllUsers(ServletWebRequest request) {
+        if (ConditionalRequests.notModified(request, changeVersions.usersTag())) {
+            return null;
+        }
         return userService.findAllUsers();
     }
 
+    @GetMapping(params = "limit")
+    @PreAuthorize("hasAuthority('SCOPE_ADMIN')")
+    public CursorPageDto<UserResponseDto> findUsers(@RequestParam(required = false) String cursor,
+                                                    @RequestParam int limit,
+                                                    ServletWebRequest request) {
+        if (ConditionalRequests.notModified(request, changeVersions.usersTag())) {
+            return null;
+        }
+        return userService.findUsers(cursor, limit);
+    }
+
+    @GetMapping(produces = MediaType.APPLICATION_NDJSON_VALUE)
+    @PreAuthorize("hasAuthority('SCOPE_ADMIN')")
+    public void exportUsers(ServletWebRequest request, HttpServletResponse response) throws IOException {
+        if (ConditionalRequests.notModified(request, changeVersions.usersTag())) {
+            return;
+        }
+        response.setStatus(HttpStatus.OK.value());
+        response.setContentType(MediaType.APPLICATION_NDJSON_VALUE);
+        var writer = objectMapper.writer().without(SerializationFeature.FLUSH_AFTER_WRITE_VALUE);
+        try (var generator = objectMapper.getFactory().createGenerator(response.getOutputStream())) {
+            userService.exportAllUsers(user -> {
+                try {
+                    writer.writeValue(generator, user);
+                    generator.writeRaw('\n');
+                } catch (IOException e) {
+                    throw new UncheckedIOException(e);
+                }
+            });
+        }
+    }
+
+    @GetMapping("/{id}/tweets")
+    public CursorPageDto<TweetResponseDto> findUserTweets(@PathVariable UUID id,
+                                                          @RequestParam(required = false) String cursor,
+                                                          @RequestParam(defaultValue = "20") int limit,
+                                                          ServletWebRequest request) {
+        if (ConditionalRequests.notModified(request, changeVersions.userTweetsTag(id))) {
+            return null;
+        }
+        return tweetService.findUserTweets(id, cursor, limit);
+    }
+
+    @PostMapping("/{id}/follow")
+    @ResponseStatus(HttpStatus.CREATED)
+    public void follow(@PathVariable UUID id, JwtAuthenticationToken jwtAuthenticationToken) {
+        followService.follow(id, jwtAuthenticationToken);
+    }
+
+    @DeleteMapping("/{id}/follow")
+    @ResponseStatus(HttpStatus.OK)
+    public void unfollow(@PathVariable UUID id, JwtAuthenticationToken jwtAuthenticationToken) {
+        followService.unfollow(id, jwtAuthenticationToken);
+    }
+
 }
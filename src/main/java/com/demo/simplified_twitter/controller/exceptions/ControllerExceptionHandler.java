@@ -2,11 +2,15 @@ package com.demo.simplified_twitter.controller.exceptions;
 
 import com.demo.simplified_twitter.dto.HttpErrorResponseDto;
 import com.demo.simplified_twitter.exceptions.BadCredentialsException;
+import com.demo.simplified_twitter.exceptions.InvalidRequestException;
 import com.demo.simplified_twitter.exceptions.ResourceAlreadyExistsException;
 import com.demo.simplified_twitter.exceptions.ResourceNotFoundException;
+import com.demo.simplified_twitter.exceptions.ServiceUnavailableException;
 import jakarta.servlet.http.HttpServletRequest;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
+import org.springframework.transaction.CannotCreateTransactionException;
 import org.springframework.web.bind.annotation.ControllerAdvice;
 import org.springframework.web.bind.annotation.ExceptionHandler;
 
@@ -60,4 +64,48 @@ public class ControllerExceptionHandler {
         return new ResponseEntity<>(httpExceptionHandlerResponse, httpStatus);
     }
 
+    @ExceptionHandler(InvalidRequestException.class)
+    public ResponseEntity<HttpErrorResponseDto> invalidRequestException(InvalidRequestException e, HttpServletRequest req) {
+        HttpStatus httpStatus = HttpStatus.BAD_REQUEST;
+
+        HttpErrorResponseDto httpExceptionHandlerResponse = new HttpErrorResponseDto(
+                Instant.now(),
+                httpStatus.value(),
+                "Invalid Request",
+                e.getMessage(),
+                req.getRequestURI()
+        );
+
+        return new ResponseEntity<>(httpExceptionHandlerResponse, httpStatus);
+    }
+
+    @ExceptionHandler(ServiceUnavailableException.class)
+    public ResponseEntity<HttpErrorResponseDto> serviceUnavailableException(ServiceUnavailableException e, HttpServletRequest req) {
+        HttpStatus httpStatus = HttpStatus.SERVICE_UNAVAILABLE;
+
+        HttpErrorResponseDto httpExceptionHandlerResponse = new HttpErrorResponseDto(
+                Instant.now(),
+                httpStatus.value(),
+                "Service Unavailable",
+                e.getMessage(),
+                req.getRequestURI()
+        );
+
+        return ResponseEntity.status(httpStatus).header(HttpHeaders.RETRY_AFTER, "1").body(httpExceptionHandlerResponse);
+    }
+
+    @ExceptionHandler(CannotCreateTransactionException.class)
+    public ResponseEntity<HttpErrorResponseDto> cannotCreateTransactionException(CannotCreateTransactionException e, HttpServletRequest req) {
+        HttpStatus httpStatus = HttpStatus.SERVICE_UNAVAILABLE;
+
+        HttpErrorResponseDto httpExceptionHandlerResponse = new HttpErrorResponseDto(
+                Instant.now(),
+                httpStatus.value(),
+                "Service Unavailable",
+                "No database connection available, try again later",
+                req.getRequestURI()
+        );
+
+        return ResponseEntity.status(httpStatus).header(HttpHeaders.RETRY_AFTER, "1").body(httpExceptionHandlerResponse);
+    }
 }
@@ -0,0 +1,64 @@
+package com.demo.simplified_twitter.datasource;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.security.authentication.AnonymousAuthenticationToken;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.function.Supplier;
+
+@Component
+public class ReadYourWrites {
+    private static final ThreadLocal<String> SUBJECT = new ThreadLocal<>();
+
+    private final Cache<String, Boolean> recentWriters;
+
+    public ReadYourWrites(@Value("${datasource.read-your-writes.window}") Duration window,
+                          @Value("${datasource.read-your-writes.maximum-size}") long maximumSize) {
+        this.recentWriters = Caffeine.newBuilder()
+                .maximumSize(maximumSize)
+                .expireAfterWrite(window)
+                .build();
+    }
+
+    public static String usernameSubject(String username) {
+        return "username:" + username;
+    }
+
+    public <T> T callAs(String subject, Supplier<T> action) {
+        var previous = SUBJECT.get();
+        SUBJECT.set(subject);
+        try {
+            return action.get();
+        } finally {
+            if (previous == null) {
+                SUBJECT.remove();
+            } else {
+                SUBJECT.set(previous);
+            }
+        }
+    }
+
+    public String currentSubject() {
+        var subject = SUBJECT.get();
+        if (subject != null) {
+            return subject;
+        }
+        var authentication = SecurityContextHolder.getContext().getAuthentication();
+        if (authentication == null || !authentication.isAuthenticated() || authentication instanceof AnonymousAuthenticationToken) {
+            return null;
+        }
+        return authentication.getName();
+    }
+
+    public void recordWrite(String subject) {
+        recentWriters.put(subject, Boolean.TRUE);
+    }
+
+    public boolean recentlyWrote(String subject) {
+        return recentWriters.getIfPresent(subject) != null;
+    }
+}
@@ -0,0 +1,169 @@
+package com.demo.simplified_twitter.datasource;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.context.SmartLifecycle;
+import org.springframework.jdbc.datasource.lookup.AbstractRoutingDataSource;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Must be wrapped in a {@code LazyConnectionDataSourceProxy}, so that the read-only flag is set when routing.
+ */
+public class ReplicaRoutingDataSource extends AbstractRoutingDataSource implements SmartLifecycle, AutoCloseable {
+    private static final Logger log = LoggerFactory.getLogger(ReplicaRoutingDataSource.class);
+    private static final String PRIMARY = "primary";
+
+    private static final class Replica {
+        private final String name;
+        private final DataSource dataSource;
+        private volatile boolean healthy = true;
+
+        private Replica(String name, DataSource dataSource) {
+            this.name = name;
+            this.dataSource = dataSource;
+        }
+    }
+
+    private final DataSource primary;
+    private final List<Replica> replicas = new ArrayList<>();
+    private final ReadYourWrites readYourWrites;
+    private final Duration healthCheckInterval;
+    private final AtomicInteger nextReplica = new AtomicInteger();
+    private final Map<String, Counter> routingCounters = new HashMap<>();
+    private ScheduledExecutorService scheduler;
+
+    public ReplicaRoutingDataSource(DataSource primary, List<? extends DataSource> replicaDataSources,
+                                    ReadYourWrites readYourWrites, Duration healthCheckInterval, MeterRegistry meterRegistry) {
+        this.primary = primary;
+        this.readYourWrites = readYourWrites;
+        this.healthCheckInterval = healthCheckInterval;
+        Map<Object, Object> targets = new HashMap<>();
+        targets.put(PRIMARY, primary);
+        for (int i = 0; i < replicaDataSources.size(); i++) {
+            var replica = new Replica("replica-" + i, replicaDataSources.get(i));
+            replicas.add(replica);
+            targets.put(replica.name, replica.dataSource);
+        }
+        setTargetDataSources(targets);
+        setDefaultTargetDataSource(primary);
+        for (var reason : List.of("write", "read_your_writes", "no_healthy_replica", "replica_failed")) {
+            routingCounters.put(reason, meterRegistry.counter("db.routing", "target", PRIMARY, "reason", reason));
+        }
+        routingCounters.put("read", meterRegistry.counter("db.routing", "target", "replica", "reason", "read"));
+        afterPropertiesSet();
+    }
+
+    @Override
+    public Connection getConnection() throws SQLException {
+        var replica = route();
+        if (replica == null) {
+            return primary.getConnection();
+        }
+        try {
+            return replica.dataSource.getConnection();
+        } catch (SQLException e) {
+            markUnhealthy(replica, e);
+            routingCounters.get("replica_failed").increment();
+            return primary.getConnection();
+        }
+    }
+
+    @Override
+    protected Object determineCurrentLookupKey() {
+        var replica = route();
+        return replica == null ? PRIMARY : replica.name;
+    }
+
+    private Replica route() {
+        var subject = readYourWrites.currentSubject();
+        if (!TransactionSynchronizationManager.isCurrentTransactionReadOnly()) {
+            if (subject != null && TransactionSynchronizationManager.isActualTransactionActive()) {
+                readYourWrites.recordWrite(subject);
+            }
+            routingCounters.get("write").increment();
+            return null;
+        }
+        if (subject != null && readYourWrites.recentlyWrote(subject)) {
+            routingCounters.get("read_your_writes").increment();
+            return null;
+        }
+        int size = replicas.size();
+        int start = Math.floorMod(nextReplica.getAndIncrement(), Math.max(size, 1));
+        for (int i = 0; i < size; i++) {
+            var replica = replicas.get((start + i) % size);
+            if (replica.healthy) {
+                routingCounters.get("read").increment();
+                return replica;
+            }
+        }
+        routingCounters.get("no_healthy_replica").increment();
+        return null;
+    }
+
+    void checkReplicas() {
+        for (var replica : replicas) {
+            boolean healthy;
+            try (var connection = replica.dataSource.getConnection()) {
+                healthy = connection.isValid(1);
+            } catch (SQLException e) {
+                healthy = false;
+            }
+            if (healthy && !replica.healthy) {
+                log.info("Replica {} is healthy again", replica.name);
+            } else if (!healthy && replica.healthy) {
+                log.warn("Replica {} failed its health check, routing its reads to the primary", replica.name);
+            }
+            replica.healthy = healthy;
+        }
+    }
+
+    private void markUnhealthy(Replica replica, SQLException e) {
+        if (replica.healthy) {
+            log.warn("Replica {} refused a connection, routing its reads to the primary: {}", replica.name, e.getMessage());
+        }
+        replica.healthy = false;
+    }
+
+    @Override
+    public void start() {
+        scheduler = Executors.newSingleThreadScheduledExecutor(Thread.ofPlatform().name("replica-health-check").daemon().factory());
+        scheduler.scheduleWithFixedDelay(this::checkReplicas, 0, healthCheckInterval.toMillis(), TimeUnit.MILLISECONDS);
+    }
+
+    @Override
+    public void stop() {
+        if (scheduler != null) {
+            scheduler.shutdownNow();
+            scheduler = null;
+        }
+    }
+
+    @Override
+    public boolean isRunning() {
+        return scheduler != null;
+    }
+
+    @Override
+    public void close() throws Exception {
+        for (var replica : replicas) {
+            if (replica.dataSource instanceof AutoCloseable closeable) {
+                closeable.close();
+            }
+        }
+    }
+}
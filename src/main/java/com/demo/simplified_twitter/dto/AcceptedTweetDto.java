@@ -0,0 +1,6 @@
+package com.demo.simplified_twitter.dto;
+
+import java.time.Instant;
+
+public record AcceptedTweetDto(Long id, Instant acceptedAt) {
+}
@@ -0,0 +1,4 @@
+package com.demo.simplified_twitter.dto;
+
+public record BatchTweetItemResultDto(int index, Long id, String status, String error) {
+}
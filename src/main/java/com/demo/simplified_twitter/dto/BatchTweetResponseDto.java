@@ -0,0 +1,6 @@
+package com.demo.simplified_twitter.dto;
+
+import java.util.List;
+
+public record BatchTweetResponseDto(int created, int rejected, List<BatchTweetItemResultDto> results) {
+}
@@ -0,0 +1,6 @@
+package com.demo.simplified_twitter.dto;
+
+import java.util.List;
+
+public record CursorPageDto<T>(List<T> items, String nextCursor) {
+}
@@ -0,0 +1,4 @@
+package com.demo.simplified_twitter.dto;
+
+public record DeleteTweetsResponseDto(int requested, int deleted) {
+}
@@ -0,0 +1,4 @@
+package com.demo.simplified_twitter.dto;
+
+public record EngagementDto(Long tweetId, long likes, long retweets, boolean liked, boolean retweeted) {
+}
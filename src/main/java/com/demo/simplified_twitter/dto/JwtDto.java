@@ -1,4 +1,15 @@
 package com.demo.simplified_twitter.dto;
 
-public record JwtDto(String accessToken, Long expiresIn) {
+import com.fasterxml.jackson.annotation.JsonInclude;
+
+@JsonInclude(JsonInclude.Include.NON_NULL)
+public record JwtDto(String accessToken, Long expiresIn, String refreshToken, Long refreshExpiresIn) {
+
+    public JwtDto(String accessToken, Long expiresIn) {
+        this(accessToken, expiresIn, null, null);
+    }
+
+    public JwtDto withRefreshToken(RefreshTokenDto refreshToken) {
+        return new JwtDto(accessToken, expiresIn, refreshToken.value(), refreshToken.expiresIn());
+    }
 }
@@ -0,0 +1,6 @@
+package com.demo.simplified_twitter.dto;
+
+import java.util.UUID;
+
+public record PrincipalDto(UUID id, String username) {
+}
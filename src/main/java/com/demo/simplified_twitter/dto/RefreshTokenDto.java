@@ -0,0 +1,4 @@
+package com.demo.simplified_twitter.dto;
+
+public record RefreshTokenDto(String value, Long expiresIn) {
+}
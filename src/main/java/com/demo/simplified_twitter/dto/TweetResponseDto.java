@@ -0,0 +1,7 @@
+package com.demo.simplified_twitter.dto;
+
+import java.time.Instant;
+import java.util.UUID;
+
+public record TweetResponseDto(Long id, UUID userId, String username, String content, Instant createdAt) {
+}
@@ -0,0 +1,88 @@
+package com.demo.simplified_twitter.entities;
+
+import jakarta.persistence.EmbeddedId;
+import jakarta.persistence.Entity;
+import jakarta.persistence.FetchType;
+import jakarta.persistence.Index;
+import jakarta.persistence.JoinColumn;
+import jakarta.persistence.ManyToOne;
+import jakarta.persistence.MapsId;
+import jakarta.persistence.Table;
+import org.hibernate.annotations.CreationTimestamp;
+import org.hibernate.annotations.OnDelete;
+import org.hibernate.annotations.OnDeleteAction;
+
+import java.time.Instant;
+import java.util.Objects;
+
+// The primary key is (tweet_id, type, user_id), so looking up the reader's engagements needs the user index.
+@Entity
+@Table(name = "TB_TWEET_ENGAGEMENTS", indexes = @Index(name = "idx_tweet_engagements_user_id", columnList = "user_id, tweet_id"))
+public class Engagement {
+    @EmbeddedId
+    private EngagementId id;
+    @MapsId("tweetId")
+    @ManyToOne(fetch = FetchType.LAZY)
+    @JoinColumn(name = "tweet_id")
+    @OnDelete(action = OnDeleteAction.CASCADE)
+    private Tweet tweet;
+    @MapsId("userId")
+    @ManyToOne(fetch = FetchType.LAZY)
+    @JoinColumn(name = "user_id")
+    private User user;
+    @CreationTimestamp
+    private Instant createdAt;
+
+    public enum Type {
+        LIKE, RETWEET
+    }
+
+    public Engagement() {
+
+    }
+
+    public EngagementId getId() {
+        return id;
+    }
+
+    public void setId(EngagementId id) {
+        this.id = id;
+    }
+
+    public Tweet getTweet() {
+        return tweet;
+    }
+
+    public void setTweet(Tweet tweet) {
+        this.tweet = tweet;
+    }
+
+    public User getUser() {
+        return user;
+    }
+
+    public void setUser(User user) {
+        this.user = user;
+    }
+
+    public Instant getCreatedAt() {
+        return createdAt;
+    }
+
+    public void setCreatedAt(Instant createdAt) {
+        this.createdAt = createdAt;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) return true;
+        if (o == null || getClass() != o.getClass()) return false;
+        Engagement engagement = (Engagement) o;
+        return Objects.equals(id, engagement.id);
+    }
+
+    @Override
+    public int hashCode() {
+        return Objects.hash(id);
+    }
+}
@@ -0,0 +1,68 @@
+package com.demo.simplified_twitter.entities;
+
+import jakarta.persistence.Column;
+import jakarta.persistence.Embeddable;
+import jakarta.persistence.EnumType;
+import jakarta.persistence.Enumerated;
+
+import java.io.Serializable;
+import java.util.Objects;
+import java.util.UUID;
+
+@Embeddable
+public class EngagementId implements Serializable {
+    @Column(name = "tweet_id")
+    private Long tweetId;
+    @Column(name = "user_id")
+    private UUID userId;
+    @Enumerated(EnumType.STRING)
+    @Column(name = "type", length = 16)
+    private Engagement.Type type;
+
+    public EngagementId() {
+
+    }
+
+    public EngagementId(Long tweetId, UUID userId, Engagement.Type type) {
+        this.tweetId = tweetId;
+        this.userId = userId;
+        this.type = type;
+    }
+
+    public Long getTweetId() {
+        return tweetId;
+    }
+
+    public void setTweetId(Long tweetId) {
+        this.tweetId = tweetId;
+    }
+
+    public UUID getUserId() {
+        return userId;
+    }
+
+    public void setUserId(UUID userId) {
+        this.userId = userId;
+    }
+
+    public Engagement.Type getType() {
+        return type;
+    }
+
+    public void setType(Engagement.Type type) {
+        this.type = type;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) return true;
+        if (o == null || getClass() != o.getClass()) return false;
+        EngagementId that = (EngagementId) o;
+        return Objects.equals(tweetId, that.tweetId) && Objects.equals(userId, that.userId) && type == that.type;
+    }
+
+    @Override
+    public int hashCode() {
+        return Objects.hash(tweetId, userId, type);
+    }
+}
@@ -0,0 +1,87 @@
+package com.demo.simplified_twitter.entities;
+
+import jakarta.persistence.EmbeddedId;
+import jakarta.persistence.Entity;
+import jakarta.persistence.FetchType;
+import jakarta.persistence.Index;
+import jakarta.persistence.JoinColumn;
+import jakarta.persistence.ManyToOne;
+import jakarta.persistence.MapsId;
+import jakarta.persistence.Table;
+import org.hibernate.annotations.CreationTimestamp;
+
+import java.time.Instant;
+import java.util.Objects;
+
+// The primary key is (followed_id, follower_id), so only the follower side needs its own index
+@Entity
+@Table(name = "TB_FOLLOWS", indexes = @Index(name = "idx_follows_follower_id", columnList = "follower_id"))
+public class Follow {
+    @EmbeddedId
+    private FollowId id;
+    @MapsId("followerId")
+    @ManyToOne(fetch = FetchType.LAZY)
+    @JoinColumn(name = "follower_id")
+    private User follower;
+    @MapsId("followedId")
+    @ManyToOne(fetch = FetchType.LAZY)
+    @JoinColumn(name = "followed_id")
+    private User followed;
+    @CreationTimestamp
+    private Instant createdAt;
+
+    public Follow() {
+
+    }
+
+    public Follow(User follower, User followed) {
+        this.id = new FollowId(follower.getId(), followed.getId());
+        this.follower = follower;
+        this.followed = followed;
+    }
+
+    public FollowId getId() {
+        return id;
+    }
+
+    public void setId(FollowId id) {
+        this.id = id;
+    }
+
+    public User getFollower() {
+        return follower;
+    }
+
+    public void setFollower(User follower) {
+        this.follower = follower;
+    }
+
+    public User getFollowed() {
+        return followed;
+    }
+
+    public void setFollowed(User followed) {
+        this.followed = followed;
+    }
+
+    public Instant getCreatedAt() {
+        return createdAt;
+    }
+
+    public void setCreatedAt(Instant createdAt) {
+        this.createdAt = createdAt;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) return true;
+        if (o == null || getClass() != o.getClass()) return false;
+        Follow follow = (Follow) o;
+        return Objects.equals(id, follow.id);
+    }
+
+    @Override
+    public int hashCode() {
+        return Objects.hash(id);
+    }
+}
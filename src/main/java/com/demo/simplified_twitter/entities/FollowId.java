@@ -0,0 +1,54 @@
+package com.demo.simplified_twitter.entities;
+
+import jakarta.persistence.Column;
+import jakarta.persistence.Embeddable;
+
+import java.io.Serializable;
+import java.util.Objects;
+import java.util.UUID;
+
+@Embeddable
+public class FollowId implements Serializable {
+    @Column(name = "follower_id")
+    private UUID followerId;
+    @Column(name = "followed_id")
+    private UUID followedId;
+
+    public FollowId() {
+
+    }
+
+    public FollowId(UUID followerId, UUID followedId) {
+        this.followerId = followerId;
+        this.followedId = followedId;
+    }
+
+    public UUID getFollowerId() {
+        return followerId;
+    }
+
+    public void setFollowerId(UUID followerId) {
+        this.followerId = followerId;
+    }
+
+    public UUID getFollowedId() {
+        return followedId;
+    }
+
+    public void setFollowedId(UUID followedId) {
+        this.followedId = followedId;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) return true;
+        if (o == null || getClass() != o.getClass()) return false;
+        FollowId followId = (FollowId) o;
+        return Objects.equals(followerId, followId.followerId) && Objects.equals(followedId, followId.followedId);
+    }
+
+    @Override
+    public int hashCode() {
+        return Objects.hash(followerId, followedId);
+    }
+}
@@ -0,0 +1,101 @@
+package com.demo.simplified_twitter.entities;
+
+import jakarta.persistence.Column;
+import jakarta.persistence.Entity;
+import jakarta.persistence.Id;
+import jakarta.persistence.Table;
+
+import java.time.Instant;
+import java.util.Objects;
+
+@Entity
+@Table(name = "TB_JWT_SIGNING_KEYS")
+public class JwtSigningKey {
+    @Id
+    @Column(name = "key_id")
+    private String keyId;
+    @Column(unique = true, nullable = false)
+    private long generation;
+    @Column(nullable = false)
+    private String algorithm;
+    @Column(name = "public_key", nullable = false, length = 4096)
+    private byte[] publicKey;
+    @Column(name = "encrypted_private_key", nullable = false, length = 4096)
+    private byte[] encryptedPrivateKey;
+    @Column(name = "activates_at", nullable = false)
+    private Instant activatesAt;
+
+    public JwtSigningKey() {
+
+    }
+
+    public JwtSigningKey(String keyId, long generation, String algorithm, byte[] publicKey, byte[] encryptedPrivateKey, Instant activatesAt) {
+        this.keyId = keyId;
+        this.generation = generation;
+        this.algorithm = algorithm;
+        this.publicKey = publicKey;
+        this.encryptedPrivateKey = encryptedPrivateKey;
+        this.activatesAt = activatesAt;
+    }
+
+    public String getKeyId() {
+        return keyId;
+    }
+
+    public void setKeyId(String keyId) {
+        this.keyId = keyId;
+    }
+
+    public long getGeneration() {
+        return generation;
+    }
+
+    public void setGeneration(long generation) {
+        this.generation = generation;
+    }
+
+    public String getAlgorithm() {
+        return algorithm;
+    }
+
+    public void setAlgorithm(String algorithm) {
+        this.algorithm = algorithm;
+    }
+
+    public byte[] getPublicKey() {
+        return publicKey;
+    }
+
+    public void setPublicKey(byte[] publicKey) {
+        this.publicKey = publicKey;
+    }
+
+    public byte[] getEncryptedPrivateKey() {
+        return encryptedPrivateKey;
+    }
+
+    public void setEncryptedPrivateKey(byte[] encryptedPrivateKey) {
+        this.encryptedPrivateKey = encryptedPrivateKey;
+    }
+
+    public Instant getActivatesAt() {
+        return activatesAt;
+    }
+
+    public void setActivatesAt(Instant activatesAt) {
+        this.activatesAt = activatesAt;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) return true;
+        if (o == null || getClass() != o.getClass()) return false;
+        JwtSigningKey that = (JwtSigningKey) o;
+        return Objects.equals(keyId, that.keyId);
+    }
+
+    @Override
+    public int hashCode() {
+        return Objects.hash(keyId);
+    }
+}
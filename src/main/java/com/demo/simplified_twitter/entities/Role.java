@@ -1,16 +1,20 @@
 package com.demo.simplified_twitter.entities;
 
+import com.demo.simplified_twitter.config.HibernateCacheConfig;
 import jakarta.persistence.Column;
 import jakarta.persistence.Entity;
 import jakarta.persistence.GeneratedValue;
 import jakarta.persistence.GenerationType;
 import jakarta.persistence.Id;
 import jakarta.persistence.Table;
+import org.hibernate.annotations.Cache;
+import org.hibernate.annotations.CacheConcurrencyStrategy;
 
 import java.util.Objects;
 
 @Entity
 @Table(name = "TB_ROLES")
+@Cache(usage = CacheConcurrencyStrategy.READ_WRITE, region = HibernateCacheConfig.ROLES_REGION)
 public class Role {
     @Id
     @GeneratedValue(strategy = GenerationType.IDENTITY)
@@ -2,25 +2,33 @@ package com.demo.simplified_twitter.entities;
 
 import jakarta.persistence.Column;
 import jakarta.persistence.Entity;
+import jakarta.persistence.FetchType;
 import jakarta.persistence.GeneratedValue;
 import jakarta.persistence.GenerationType;
 import jakarta.persistence.Id;
+import jakarta.persistence.Index;
 import jakarta.persistence.JoinColumn;
 import jakarta.persistence.ManyToOne;
+import jakarta.persistence.SequenceGenerator;
 import jakarta.persistence.Table;
 import org.hibernate.annotations.CreationTimestamp;
 
 import java.time.Instant;
 import java.util.Objects;
+import java.util.UUID;
 
 @Entity
-@Table(name = "TB_TWEETS")
+@Table(name = "TB_TWEETS", indexes = {
+        @Index(name = "idx_tweets_user_id_created_at_tweet_id", columnList = "user_id, created_at DESC, tweet_id DESC"),
+        @Index(name = "idx_tweets_created_at_tweet_id", columnList = "created_at DESC, tweet_id DESC")
+})
 public class Tweet {
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "tweet_id_generator")
+    @SequenceGenerator(name = "tweet_id_generator", sequenceName = "tb_tweets_seq", allocationSize = 50)
     @Column(name = "tweet_id")
     private Long id;
-    @ManyToOne
+    @ManyToOne(fetch = FetchType.LAZY)
     @JoinColumn(name = "user_id")
     private User user;
     private String content;
@@ -74,11 +82,16 @@ public class Tweet {
         if (this == o) return true;
         if (o == null || getClass() != o.getClass()) return false;
         Tweet tweet = (Tweet) o;
-        return Objects.equals(id, tweet.id) && Objects.equals(user, tweet.user) && Objects.equals(content, tweet.content) && Objects.equals(createdAt, tweet.createdAt);
+        return Objects.equals(id, tweet.id) && Objects.equals(userId(), tweet.userId()) && Objects.equals(content, tweet.content) && Objects.equals(createdAt, tweet.createdAt);
     }
 
     @Override
     public int hashCode() {
-        return Objects.hash(id, user, content, createdAt);
+        return Objects.hash(id, userId(), content, createdAt);
+    }
+
+    // The author by id only, which a lazy proxy answers without being initialized
+    private UUID userId() {
+        return user == null ? null : user.getId();
     }
 }
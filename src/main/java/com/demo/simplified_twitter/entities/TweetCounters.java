@@ -0,0 +1,77 @@
+package com.demo.simplified_twitter.entities;
+
+import jakarta.persistence.Entity;
+import jakarta.persistence.FetchType;
+import jakarta.persistence.Id;
+import jakarta.persistence.JoinColumn;
+import jakarta.persistence.MapsId;
+import jakarta.persistence.OneToOne;
+import jakarta.persistence.Table;
+import org.hibernate.annotations.OnDelete;
+import org.hibernate.annotations.OnDeleteAction;
+
+import java.util.Objects;
+
+// Kept out of tb_tweets so that the hot counter rows of viral tweets are only touched by the periodic flush
+@Entity
+@Table(name = "TB_TWEET_COUNTERS")
+public class TweetCounters {
+    @Id
+    private Long tweetId;
+    @MapsId
+    @OneToOne(fetch = FetchType.LAZY)
+    @JoinColumn(name = "tweet_id")
+    @OnDelete(action = OnDeleteAction.CASCADE)
+    private Tweet tweet;
+    private long likes;
+    private long retweets;
+
+    public TweetCounters() {
+
+    }
+
+    public Long getTweetId() {
+        return tweetId;
+    }
+
+    public void setTweetId(Long tweetId) {
+        this.tweetId = tweetId;
+    }
+
+    public Tweet getTweet() {
+        return tweet;
+    }
+
+    public void setTweet(Tweet tweet) {
+        this.tweet = tweet;
+    }
+
+    public long getLikes() {
+        return likes;
+    }
+
+    public void setLikes(long likes) {
+        this.likes = likes;
+    }
+
+    public long getRetweets() {
+        return retweets;
+    }
+
+    public void setRetweets(long retweets) {
+        this.retweets = retweets;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) return true;
+        if (o == null || getClass() != o.getClass()) return false;
+        TweetCounters that = (TweetCounters) o;
+        return Objects.equals(tweetId, that.tweetId);
+    }
+
+    @Override
+    public int hashCode() {
+        return Objects.hash(tweetId);
+    }
+}
@@ -1,23 +1,30 @@
 package com.demo.simplified_twitter.entities;
 
+import com.demo.simplified_twitter.config.HibernateCacheConfig;
 import jakarta.persistence.Column;
 import jakarta.persistence.Entity;
 import jakarta.persistence.FetchType;
 import jakarta.persistence.GeneratedValue;
 import jakarta.persistence.GenerationType;
 import jakarta.persistence.Id;
+import jakarta.persistence.Index;
 import jakarta.persistence.JoinColumn;
 import jakarta.persistence.JoinTable;
 import jakarta.persistence.ManyToMany;
 import jakarta.persistence.Table;
+import org.hibernate.annotations.Cache;
+import org.hibernate.annotations.CacheConcurrencyStrategy;
+import org.hibernate.annotations.CreationTimestamp;
 
+import java.time.Instant;
 import java.util.HashSet;
 import java.util.Objects;
 import java.util.Set;
 import java.util.UUID;
 
 @Entity
-@Table(name = "TB_USERS")
+@Table(name = "TB_USERS", indexes = @Index(name = "idx_users_created_at", columnList = "created_at"))
+@Cache(usage = CacheConcurrencyStrategy.READ_WRITE, region = HibernateCacheConfig.USERS_REGION)
 public class User {
     @Id
     @GeneratedValue(strategy = GenerationType.UUID)
@@ -26,10 +33,13 @@ public class User {
     @Column(unique = true)
     private String username;
     private String password;
-    @ManyToMany(fetch = FetchType.EAGER)
+    @ManyToMany(fetch = FetchType.LAZY)
+    @Cache(usage = CacheConcurrencyStrategy.READ_WRITE, region = HibernateCacheConfig.USER_ROLES_REGION)
     @JoinTable(name = "tb_user_roles", joinColumns =
     @JoinColumn(name = "user_id"), inverseJoinColumns = @JoinColumn(name = "role_id"))
     private Set<Role> roles = new HashSet<>();
+    @CreationTimestamp
+    private Instant createdAt;
 
     public UUID getId() {
         return id;
@@ -55,6 +65,14 @@ public class User {
         this.password = password;
     }
 
+    public Instant getCreatedAt() {
+        return createdAt;
+    }
+
+    public void setCreatedAt(Instant createdAt) {
+        this.createdAt = createdAt;
+    }
+
     public Set<Role> getRoles() {
         return roles;
     }
@@ -68,13 +86,12 @@ public class User {
         if (this == o) return true;
         if (o == null || getClass() != o.getClass()) return false;
         User user = (User) o;
-        return Objects.equals(id, user.id) &&
-                Objects.equals(username, user.username) &&
-                Objects.equals(password, user.password) &&
-                Objects.equals(roles, user.roles);
+        // The username is the unique business key: comparing it never touches the lazy roles collection
+        return Objects.equals(username, user.username);
     }
+
     @Override
     public int hashCode() {
-        return Objects.hash(id, username, password, roles);
+        return Objects.hashCode(username);
     }
 }
@@ -0,0 +1,6 @@
+package com.demo.simplified_twitter.events;
+
+import com.demo.simplified_twitter.entities.Engagement;
+
+public record EngagementChangedEvent(Long tweetId, Engagement.Type type, int delta) {
+}
@@ -0,0 +1,6 @@
+package com.demo.simplified_twitter.events;
+
+import java.util.UUID;
+
+public record FollowChangedEvent(UUID followerId, UUID followedId, boolean following) {
+}
@@ -0,0 +1,9 @@
+package com.demo.simplified_twitter.events;
+
+import com.demo.simplified_twitter.dto.TweetResponseDto;
+
+import java.util.List;
+import java.util.UUID;
+
+public record TweetBatchCreatedEvent(UUID userId, List<TweetResponseDto> tweets) {
+}
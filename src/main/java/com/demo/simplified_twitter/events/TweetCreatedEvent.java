@@ -0,0 +1,6 @@
+package com.demo.simplified_twitter.events;
+
+import com.demo.simplified_twitter.dto.TweetResponseDto;
+
+public record TweetCreatedEvent(TweetResponseDto tweet) {
+}
@@ -0,0 +1,7 @@
+package com.demo.simplified_twitter.exceptions;
+
+public class ServiceUnavailableException extends RuntimeException {
+    public ServiceUnavailableException(String message) {
+        super(message);
+    }
+}
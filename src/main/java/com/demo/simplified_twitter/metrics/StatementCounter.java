@@ -0,0 +1,26 @@
+package com.demo.simplified_twitter.metrics;
+
+import org.hibernate.resource.jdbc.spi.StatementInspector;
+
+public class StatementCounter implements StatementInspector {
+    private static final ThreadLocal<int[]> COUNT = new ThreadLocal<>();
+
+    @Override
+    public String inspect(String sql) {
+        var count = COUNT.get();
+        if (count != null) {
+            count[0]++;
+        }
+        return sql;
+    }
+
+    static void open() {
+        COUNT.set(new int[1]);
+    }
+
+    static int close() {
+        var count = COUNT.get();
+        COUNT.remove();
+        return count == null ? 0 : count[0];
+    }
+}
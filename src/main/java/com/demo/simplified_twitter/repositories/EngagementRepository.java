@@ -0,0 +1,28 @@
+package com.demo.simplified_twitter.repositories;
+
+import com.demo.simplified_twitter.entities.Engagement;
+import com.demo.simplified_twitter.entities.EngagementId;
+import com.demo.simplified_twitter.repositories.projections.EngagementRow;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+
+import java.util.Collection;
+import java.util.List;
+import java.util.UUID;
+
+public interface EngagementRepository extends JpaRepository<Engagement, EngagementId> {
+    // Returns 0 instead of failing when the user already engaged, so that retries and double taps are free
+    @Modifying
+    @Query(value = "insert into tb_tweet_engagements (tweet_id, user_id, type, created_at) " +
+            "values (:tweetId, :userId, :type, current_timestamp) on conflict do nothing", nativeQuery = true)
+    int insertIfAbsent(Long tweetId, UUID userId, String type);
+
+    @Modifying
+    @Query("delete from Engagement e where e.id.tweetId = :tweetId and e.id.userId = :userId and e.id.type = :type")
+    int deleteByTweetIdAndUserIdAndType(Long tweetId, UUID userId, Engagement.Type type);
+
+    @Query("select new com.demo.simplified_twitter.repositories.projections.EngagementRow(e.id.tweetId, e.id.type) " +
+            "from Engagement e where e.id.userId = :userId and e.id.tweetId in :tweetIds")
+    List<EngagementRow> findRowsByUserIdAndTweetIds(UUID userId, Collection<Long> tweetIds);
+}
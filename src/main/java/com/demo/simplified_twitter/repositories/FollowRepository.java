@@ -0,0 +1,24 @@
+package com.demo.simplified_twitter.repositories;
+
+import com.demo.simplified_twitter.entities.Follow;
+import com.demo.simplified_twitter.entities.FollowId;
+import org.springframework.data.domain.Limit;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+
+import java.util.List;
+import java.util.UUID;
+
+public interface FollowRepository extends JpaRepository<Follow, FollowId> {
+    @Modifying
+    @Query(value = "insert into tb_follows (follower_id, followed_id, created_at) " +
+            "values (:followerId, :followedId, current_timestamp) on conflict do nothing", nativeQuery = true)
+    int insertIfAbsent(UUID followerId, UUID followedId);
+
+    @Query("select f.id.followerId from Follow f where f.id.followedId = :followedId")
+    List<UUID> findFollowerIds(UUID followedId, Limit limit);
+
+    @Query("select f.id.followedId from Follow f where f.id.followerId = :followerId")
+    List<UUID> findFollowedIds(UUID followerId);
+}
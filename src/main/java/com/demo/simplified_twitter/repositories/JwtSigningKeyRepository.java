@@ -0,0 +1,7 @@
+package com.demo.simplified_twitter.repositories;
+
+import com.demo.simplified_twitter.entities.JwtSigningKey;
+import org.springframework.data.jpa.repository.JpaRepository;
+
+public interface JwtSigningKeyRepository extends JpaRepository<JwtSigningKey, String> {
+}
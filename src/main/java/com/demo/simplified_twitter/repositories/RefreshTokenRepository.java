@@ -0,0 +1,31 @@
+package com.demo.simplified_twitter.repositories;
+
+import com.demo.simplified_twitter.entities.RefreshToken;
+import com.demo.simplified_twitter.repositories.projections.RefreshTokenRow;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.Instant;
+import java.util.Optional;
+import java.util.UUID;
+
+public interface RefreshTokenRepository extends JpaRepository<RefreshToken, UUID> {
+    @Query("select new com.demo.simplified_twitter.repositories.projections.RefreshTokenRow(t.familyId, t.user.id, t.expiresAt) " +
+            "from RefreshToken t where t.tokenHash = :tokenHash")
+    Optional<RefreshTokenRow> findRowByTokenHash(String tokenHash);
+
+    @Modifying
+    @Query("update RefreshToken t set t.usedAt = :usedAt where t.tokenHash = :tokenHash and t.usedAt is null and t.revoked = false")
+    int markUsed(String tokenHash, Instant usedAt);
+
+    @Modifying
+    @Query("update RefreshToken t set t.revoked = true where t.familyId = :familyId")
+    int revokeFamily(UUID familyId);
+
+    @Transactional
+    @Modifying
+    @Query("delete from RefreshToken t where t.expiresAt <= :now")
+    int deleteExpired(Instant now);
+}
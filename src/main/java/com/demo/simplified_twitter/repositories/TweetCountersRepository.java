@@ -0,0 +1,15 @@
+package com.demo.simplified_twitter.repositories;
+
+import com.demo.simplified_twitter.entities.TweetCounters;
+import com.demo.simplified_twitter.repositories.projections.TweetCountersRow;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+
+import java.util.Collection;
+import java.util.List;
+
+public interface TweetCountersRepository extends JpaRepository<TweetCounters, Long> {
+    @Query("select new com.demo.simplified_twitter.repositories.projections.TweetCountersRow(c.tweetId, c.likes, c.retweets) " +
+            "from TweetCounters c where c.tweetId in :tweetIds")
+    List<TweetCountersRow> findRowsByTweetIds(Collection<Long> tweetIds);
+}
@@ -0,0 +1,26 @@
+package com.demo.simplified_twitter.repositories;
+
+import com.demo.simplified_twitter.entities.Tweet;
+import jakarta.persistence.EntityManager;
+import org.hibernate.engine.spi.SharedSessionContractImplementor;
+import org.hibernate.id.IdentifierGenerator;
+import org.springframework.stereotype.Component;
+
+@Component
+public class TweetIdGenerator {
+
+    private final EntityManager entityManager;
+
+    public TweetIdGenerator(EntityManager entityManager) {
+        this.entityManager = entityManager;
+    }
+
+    public Long nextId() {
+        var session = entityManager.unwrap(SharedSessionContractImplementor.class);
+        var generator = (IdentifierGenerator) session.getFactory()
+                .getMappingMetamodel()
+                .getEntityDescriptor(Tweet.class)
+                .getGenerator();
+        return ((Number) generator.generate(session, null)).longValue();
+    }
+}
@@ -1,11 +1,61 @@
 package com.demo.simplified_twitter.repositories;
 
+import com.demo.simplified_twitter.dto.TweetResponseDto;
 import com.demo.simplified_twitter.entities.Tweet;
-import com.demo.simplified_twitter.entities.User;
+import com.demo.simplified_twitter.repositories.projections.TweetsVersionRow;
+import org.springframework.data.domain.Limit;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
 
-import java.util.Optional;
+import java.time.Instant;
+import java.util.Collection;
+import java.util.List;
+import java.util.UUID;
 
 public interface TweetRepository extends JpaRepository<Tweet, Long> {
-    Optional<Tweet> findByIdAndUser(Long id, User user);
+    @Modifying
+    @Query("delete from Tweet t where t.id = :id and t.user.id = :userId")
+    int deleteByIdAndUserId(Long id, UUID userId);
+
+    @Modifying
+    @Query("delete from Tweet t where t.id in :ids and t.user.id = :userId")
+    int deleteByIdsAndUserId(Collection<Long> ids, UUID userId);
+
+    @Query("select t.id from Tweet t where t.user.id in :userIds order by t.id desc")
+    List<Long> findLatestIdsByUserIds(Collection<UUID> userIds, Limit limit);
+
+    @Query("select t.id from Tweet t where t.user.id in :userIds and t.id < :beforeId order by t.id desc")
+    List<Long> findIdsByUserIdsBefore(Collection<UUID> userIds, Long beforeId, Limit limit);
+
+    @Query("select t.id from Tweet t where t.user.id in :userIds and t.createdAt > :createdAt order by t.id desc")
+    List<Long> findIdsByUserIdsCreatedAfter(Collection<UUID> userIds, Instant createdAt, Limit limit);
+
+    @Query("select new com.demo.simplified_twitter.dto.TweetResponseDto(t.id, u.id, u.username, t.content, t.createdAt) " +
+            "from Tweet t join t.user u where t.id in :ids")
+    List<TweetResponseDto> findViewsByIds(Collection<Long> ids);
+
+    @Query("select new com.demo.simplified_twitter.repositories.projections.TweetsVersionRow(count(t), max(t.id)) from Tweet t")
+    TweetsVersionRow findVersion();
+
+    @Query("select new com.demo.simplified_twitter.repositories.projections.TweetsVersionRow(count(t), max(t.id)) " +
+            "from Tweet t where t.user.id in :userIds")
+    TweetsVersionRow findVersionByUserIds(Collection<UUID> userIds);
+
+    @Query("select new com.demo.simplified_twitter.dto.TweetResponseDto(t.id, u.id, u.username, t.content, t.createdAt) " +
+            "from Tweet t join t.user u order by t.createdAt desc, t.id desc")
+    List<TweetResponseDto> findLatestViews(Limit limit);
+
+    @Query("select new com.demo.simplified_twitter.dto.TweetResponseDto(t.id, u.id, u.username, t.content, t.createdAt) " +
+            "from Tweet t join t.user u where (t.createdAt, t.id) < (:createdAt, :id) order by t.createdAt desc, t.id desc")
+    List<TweetResponseDto> findLatestViewsAfter(Instant createdAt, Long id, Limit limit);
+
+    @Query("select new com.demo.simplified_twitter.dto.TweetResponseDto(t.id, u.id, u.username, t.content, t.createdAt) " +
+            "from Tweet t join t.user u where t.user.id = :userId order by t.createdAt desc, t.id desc")
+    List<TweetResponseDto> findViewsByUserId(UUID userId, Limit limit);
+
+    @Query("select new com.demo.simplified_twitter.dto.TweetResponseDto(t.id, u.id, u.username, t.content, t.createdAt) " +
+            "from Tweet t join t.user u where t.user.id = :userId and (t.createdAt, t.id) < (:createdAt, :id) " +
+            "order by t.createdAt desc, t.id desc")
+    List<TweetResponseDto> findViewsByUserIdAfter(UUID userId, Instant createdAt, Long id, Limit limit);
 }
@@ -1,11 +1,78 @@
 package com.demo.simplified_twitter.repositories;
 
+import com.demo.simplified_twitter.dto.PrincipalDto;
 import com.demo.simplified_twitter.entities.User;
+import com.demo.simplified_twitter.repositories.projections.UserCredentialsRow;
+import com.demo.simplified_twitter.repositories.projections.UserRoleRow;
+import com.demo.simplified_twitter.repositories.projections.UsersVersionRow;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
+import org.springframework.data.domain.Limit;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
 
+import java.time.Instant;
+import java.util.Collection;
+import java.util.List;
 import java.util.Optional;
 import java.util.UUID;
+import java.util.stream.Stream;
 
 public interface UserRepository extends JpaRepository<User, UUID> {
     Optional<User> findByUsername(String username);
+
+    boolean existsByUsername(String username);
+
+    @Query("select u.username from User u")
+    @QueryHints({
+            @QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "1000"),
+            @QueryHint(name = HibernateHints.HINT_READ_ONLY, value = "true")
+    })
+    Stream<String> streamAllUsernames();
+
+    @Query("select new com.demo.simplified_twitter.repositories.projections.UsersVersionRow(count(u), max(u.createdAt)) from User u")
+    UsersVersionRow findVersion();
+
+    @Query("select u.username from User u where u.createdAt > :since")
+    List<String> findUsernamesCreatedAfter(Instant since);
+
+    @Query("select new com.demo.simplified_twitter.repositories.projections.UserCredentialsRow(u.id, u.username, u.password, r.id, r.name) " +
+            "from User u left join u.roles r where u.username = :username")
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_CACHEABLE, value = "true"))
+    List<UserCredentialsRow> findCredentialRowsByUsername(String username);
+
+    @Query("select new com.demo.simplified_twitter.repositories.projections.UserCredentialsRow(u.id, u.username, u.password, r.id) " +
+            "from User u left join u.roles r where u.username = :username")
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_CACHEABLE, value = "true"))
+    List<UserCredentialsRow> findCredentialRoleIdsByUsername(String username);
+
+    @Query("select new com.demo.simplified_twitter.repositories.projections.UserCredentialsRow(u.id, u.username, u.password, r.id, r.name) " +
+            "from User u left join u.roles r where u.id = :id")
+    List<UserCredentialsRow> findCredentialRowsById(UUID id);
+
+    @Query("select new com.demo.simplified_twitter.repositories.projections.UserCredentialsRow(u.id, u.username, u.password, r.id) " +
+            "from User u left join u.roles r where u.id = :id")
+    List<UserCredentialsRow> findCredentialRoleIdsById(UUID id);
+
+    @Query("select new com.demo.simplified_twitter.dto.PrincipalDto(u.id, u.username) from User u where u.id = :id")
+    Optional<PrincipalDto> findPrincipalById(UUID id);
+
+    @Query("select u.id from User u order by u.id")
+    List<UUID> findPageIds(Limit limit);
+
+    @Query("select u.id from User u where u.id > :afterId order by u.id")
+    List<UUID> findPageIdsAfter(UUID afterId, Limit limit);
+
+    @Query("select new com.demo.simplified_twitter.repositories.projections.UserRoleRow(u.id, u.username, r.id, r.name) " +
+            "from User u left join u.roles r where u.id in :ids order by u.id")
+    List<UserRoleRow> findRoleRowsByIds(Collection<UUID> ids);
+
+    @Query("select new com.demo.simplified_twitter.repositories.projections.UserRoleRow(u.id, u.username, r.id, r.name) " +
+            "from User u left join u.roles r order by u.id")
+    @QueryHints({
+            @QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "500"),
+            @QueryHint(name = HibernateHints.HINT_READ_ONLY, value = "true")
+    })
+    Stream<UserRoleRow> streamAllRoleRows();
 }
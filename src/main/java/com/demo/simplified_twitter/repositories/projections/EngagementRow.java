@@ -0,0 +1,6 @@
+package com.demo.simplified_twitter.repositories.projections;
+
+import com.demo.simplified_twitter.entities.Engagement;
+
+public record EngagementRow(Long tweetId, Engagement.Type type) {
+}
@@ -0,0 +1,7 @@
+package com.demo.simplified_twitter.repositories.projections;
+
+import java.time.Instant;
+import java.util.UUID;
+
+public record RefreshTokenRow(UUID familyId, UUID userId, Instant expiresAt) {
+}
@@ -0,0 +1,4 @@
+package com.demo.simplified_twitter.repositories.projections;
+
+public record TweetCountersRow(Long tweetId, long likes, long retweets) {
+}
@@ -0,0 +1,4 @@
+package com.demo.simplified_twitter.repositories.projections;
+
+public record TweetsVersionRow(long count, Long maxTweetId) {
+}
@@ -0,0 +1,13 @@
+package com.demo.simplified_twitter.repositories.projections;
+
+import java.util.UUID;
+
+/**
+ * One row per role, or a single row with a null role for a user without roles.
+ */
+public record UserCredentialsRow(UUID userId, String username, String password, Long roleId, String roleName) {
+
+    public UserCredentialsRow(UUID userId, String username, String password, Long roleId) {
+        this(userId, username, password, roleId, null);
+    }
+}
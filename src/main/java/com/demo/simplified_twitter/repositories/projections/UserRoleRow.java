@@ -0,0 +1,6 @@
+package com.demo.simplified_twitter.repositories.projections;
+
+import java.util.UUID;
+
+public record UserRoleRow(UUID userId, String username, Long roleId, String roleName) {
+}
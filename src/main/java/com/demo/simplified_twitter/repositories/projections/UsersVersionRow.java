@@ -0,0 +1,6 @@
+package com.demo.simplified_twitter.repositories.projections;
+
+import java.time.Instant;
+
+public record UsersVersionRow(long count, Instant maxCreatedAt) {
+}
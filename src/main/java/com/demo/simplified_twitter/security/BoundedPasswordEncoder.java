@@ -0,0 +1,129 @@
+package com.demo.simplified_twitter.security;
+
+import com.demo.simplified_twitter.exceptions.ServiceUnavailableException;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.springframework.security.crypto.password.PasswordEncoder;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.FutureTask;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicInteger;
+
+public class BoundedPasswordEncoder implements PasswordEncoder, AutoCloseable {
+
+    enum Lane {
+        LOGIN, SIGNUP
+    }
+
+    private final PasswordEncoder delegate;
+    private final Duration maxWait;
+    private final Map<Lane, BlockingQueue<FutureTask<?>>> lanes = new EnumMap<>(Lane.class);
+    private final Map<Lane, Counter> rejectedCounters = new EnumMap<>(Lane.class);
+    private final Map<Lane, Timer> waitTimers = new EnumMap<>(Lane.class);
+    private final Semaphore pending = new Semaphore(0);
+    private final AtomicInteger nextLane = new AtomicInteger();
+    private final List<Thread> workers = new ArrayList<>();
+
+    public BoundedPasswordEncoder(PasswordEncoder delegate, int threads, int queueCapacity, Duration maxWait, MeterRegistry meterRegistry) {
+        this.delegate = delegate;
+        this.maxWait = maxWait;
+        for (Lane lane : Lane.values()) {
+            var queue = new ArrayBlockingQueue<FutureTask<?>>(queueCapacity);
+            var tag = lane.name().toLowerCase();
+            lanes.put(lane, queue);
+            rejectedCounters.put(lane, meterRegistry.counter("auth.password.rejected", "lane", tag));
+            waitTimers.put(lane, Timer.builder("auth.password.wait").tag("lane", tag).publishPercentileHistogram().register(meterRegistry));
+            Gauge.builder("auth.password.queue.depth", queue, BlockingQueue::size).tag("lane", tag).register(meterRegistry);
+        }
+        for (int i = 0; i < threads; i++) {
+            var worker = Thread.ofPlatform().name("password-hashing-" + i).daemon().unstarted(this::work);
+            workers.add(worker);
+            worker.start();
+        }
+    }
+
+    @Override
+    public String encode(CharSequence rawPassword) {
+        return submit(Lane.SIGNUP, () -> delegate.encode(rawPassword));
+    }
+
+    @Override
+    public boolean matches(CharSequence rawPassword, String encodedPassword) {
+        return submit(Lane.LOGIN, () -> delegate.matches(rawPassword, encodedPassword));
+    }
+
+    @Override
+    public boolean upgradeEncoding(String encodedPassword) {
+        return delegate.upgradeEncoding(encodedPassword);
+    }
+
+    @Override
+    public void close() {
+        workers.forEach(Thread::interrupt);
+    }
+
+    private <T> T submit(Lane lane, Callable<T> hashing) {
+        long submittedAt = System.nanoTime();
+        var waitTimer = waitTimers.get(lane);
+        var task = new FutureTask<>(() -> {
+            waitTimer.record(System.nanoTime() - submittedAt, TimeUnit.NANOSECONDS);
+            return hashing.call();
+        });
+        if (!lanes.get(lane).offer(task)) {
+            throw rejected(lane);
+        }
+        pending.release();
+        try {
+            return task.get(maxWait.toNanos(), TimeUnit.NANOSECONDS);
+        } catch (TimeoutException e) {
+            task.cancel(false);
+            throw rejected(lane);
+        } catch (InterruptedException e) {
+            task.cancel(false);
+            Thread.currentThread().interrupt();
+            throw new ServiceUnavailableException("Interrupted while waiting for password hashing");
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof RuntimeException runtimeException) {
+                throw runtimeException;
+            }
+            throw new IllegalStateException(e.getCause());
+        }
+    }
+
+    private ServiceUnavailableException rejected(Lane lane) {
+        rejectedCounters.get(lane).increment();
+        return new ServiceUnavailableException("Too many concurrent authentication requests, try again later");
+    }
+
+    private void work() {
+        var values = Lane.values();
+        while (!Thread.currentThread().isInterrupted()) {
+            try {
+                pending.acquire();
+            } catch (InterruptedException e) {
+                return;
+            }
+            int start = Math.floorMod(nextLane.getAndIncrement(), values.length);
+            for (int i = 0; i < values.length; i++) {
+                var task = lanes.get(values[(start + i) % values.length]).poll();
+                if (task != null) {
+                    task.run();
+                    break;
+                }
+            }
+        }
+    }
+}
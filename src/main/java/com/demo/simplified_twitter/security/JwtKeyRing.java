@@ -0,0 +1,228 @@
+package com.demo.simplified_twitter.security;
+
+import com.nimbusds.jose.JOSEException;
+import com.nimbusds.jose.JWSHeader;
+import com.nimbusds.jose.JWSSigner;
+import com.nimbusds.jose.JWSVerifier;
+import com.nimbusds.jose.crypto.factories.DefaultJWSVerifierFactory;
+import com.nimbusds.jose.jwk.JWK;
+import com.nimbusds.jose.jwk.JWKSet;
+import com.nimbusds.jose.proc.JWSKeySelector;
+import com.nimbusds.jose.proc.SecurityContext;
+import com.nimbusds.jwt.proc.DefaultJWTProcessor;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.context.SmartLifecycle;
+import org.springframework.security.oauth2.jwt.JwtDecoder;
+import org.springframework.security.oauth2.jwt.NimbusJwtDecoder;
+
+import java.security.GeneralSecurityException;
+import java.security.Key;
+import java.security.KeyPair;
+import java.security.PublicKey;
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+public class JwtKeyRing implements JWSKeySelector<SecurityContext>, SmartLifecycle {
+    private static final Logger log = LoggerFactory.getLogger(JwtKeyRing.class);
+
+    public record SigningKey(String keyId, long generation, JwtSigningAlgorithm algorithm, KeyPair keyPair, JWSSigner signer,
+                             JWK publicJwk, Instant activatesAt, Instant retireAt) {
+    }
+
+    private final JwtSigningAlgorithm algorithm;
+    private final KeyPair initialKeyPair;
+    private final JwtKeyStore store;
+    private final Duration rotationInterval;
+    private final Duration publishAhead;
+    private final Duration syncInterval;
+    private final Duration tokenLifetime;
+    private final Clock clock;
+    // Ordered by generation, oldest first
+    private volatile List<SigningKey> keys = List.of();
+    private ScheduledExecutorService scheduler;
+
+    public JwtKeyRing(JwtSigningAlgorithm algorithm, KeyPair initialKeyPair, Duration rotationInterval, Duration tokenLifetime) {
+        this(algorithm, initialKeyPair, JwtKeyStore.inMemory(), rotationInterval, Duration.ZERO, rotationInterval, tokenLifetime, Clock.systemUTC());
+    }
+
+    public JwtKeyRing(JwtSigningAlgorithm algorithm, KeyPair initialKeyPair, JwtKeyStore store, Duration rotationInterval,
+                      Duration publishAhead, Duration syncInterval, Duration tokenLifetime) {
+        this(algorithm, initialKeyPair, store, rotationInterval, publishAhead, syncInterval, tokenLifetime, Clock.systemUTC());
+    }
+
+    JwtKeyRing(JwtSigningAlgorithm algorithm, KeyPair initialKeyPair, JwtKeyStore store, Duration rotationInterval,
+               Duration publishAhead, Duration syncInterval, Duration tokenLifetime, Clock clock) {
+        if (rotationInterval.isPositive() && rotationInterval.compareTo(publishAhead) <= 0) {
+            throw new IllegalArgumentException("jwt.signing.rotation-interval must be longer than the JWKS cache lifetime plus one sync, "
+                    + publishAhead);
+        }
+        this.algorithm = algorithm;
+        this.initialKeyPair = initialKeyPair;
+        this.store = store;
+        this.rotationInterval = rotationInterval;
+        this.publishAhead = publishAhead;
+        this.syncInterval = syncInterval;
+        this.tokenLifetime = tokenLifetime;
+        this.clock = clock;
+        refresh();
+    }
+
+    public SigningKey signingKey() {
+        var now = clock.instant();
+        var ring = keys;
+        for (int i = ring.size() - 1; i > 0; i--) {
+            if (!ring.get(i).activatesAt().isAfter(now)) {
+                return ring.get(i);
+            }
+        }
+        return ring.getFirst();
+    }
+
+    public synchronized void rotate() {
+        refresh();
+        publishNext(clock.instant());
+    }
+
+    public synchronized void sync() {
+        refresh();
+        var latest = keys.getLast();
+        if (latest.algorithm() != algorithm) {
+            publishNext(clock.instant());
+        } else if (rotationInterval.isPositive() && !latest.activatesAt().plus(rotationInterval).minus(publishAhead).isAfter(clock.instant())) {
+            publishNext(latest.activatesAt().plus(rotationInterval));
+        }
+    }
+
+    public JWKSet publicJwkSet() {
+        var now = clock.instant();
+        return new JWKSet(keys.stream().filter(key -> isAccepted(key, now)).map(SigningKey::publicJwk).toList());
+    }
+
+    @Override
+    public List<? extends Key> selectJWSKeys(JWSHeader header, SecurityContext context) {
+        var now = clock.instant();
+        return keys.stream()
+                .filter(key -> key.algorithm().getJwsAlgorithm().equals(header.getAlgorithm()))
+                .filter(key -> header.getKeyID() == null || key.keyId().equals(header.getKeyID()))
+                .filter(key -> isAccepted(key, now))
+                .map(key -> key.keyPair().getPublic())
+                .toList();
+    }
+
+    public JwtDecoder jwtDecoder() {
+        var jwtProcessor = new DefaultJWTProcessor<SecurityContext>();
+        jwtProcessor.setJWSKeySelector(this);
+        jwtProcessor.setJWSVerifierFactory(new DefaultJWSVerifierFactory() {
+            @Override
+            public JWSVerifier createJWSVerifier(JWSHeader header, Key key) throws JOSEException {
+                if (header.getAlgorithm().equals(JwtSigningAlgorithm.EDDSA.getJwsAlgorithm())) {
+                    return new Ed25519JwsVerifier((PublicKey) key);
+                }
+                return super.createJWSVerifier(header, key);
+            }
+        });
+        // Claims are validated by Spring Security's own validators, as NimbusJwtDecoder's builders also do
+        jwtProcessor.setJWTClaimsSetVerifier((claims, context) -> {
+        });
+        return new NimbusJwtDecoder(jwtProcessor);
+    }
+
+    @Override
+    public void start() {
+        if (!syncInterval.isPositive()) {
+            return;
+        }
+        scheduler = Executors.newSingleThreadScheduledExecutor(Thread.ofPlatform().name("jwt-key-rotation").daemon().factory());
+        scheduler.scheduleWithFixedDelay(() -> {
+            try {
+                sync();
+            } catch (RuntimeException e) {
+                log.warn("Failed to sync JWT signing keys", e);
+            }
+        }, syncInterval.toMillis(), syncInterval.toMillis(), TimeUnit.MILLISECONDS);
+    }
+
+    @Override
+    public void stop() {
+        if (scheduler != null) {
+            scheduler.shutdownNow();
+            scheduler = null;
+        }
+    }
+
+    @Override
+    public boolean isRunning() {
+        return scheduler != null;
+    }
+
+    private synchronized void refresh() {
+        var stored = store.findAll();
+        if (stored.isEmpty()) {
+            // Losing this race to another node is fine, its key is loaded instead
+            store.add(storedKey(0, initialKeyPair != null ? initialKeyPair : generateKeyPair(), clock.instant()));
+            stored = store.findAll();
+        }
+        var sorted = stored.stream().sorted(Comparator.comparingLong(JwtKeyStore.StoredKey::generation)).toList();
+        var now = clock.instant();
+        List<SigningKey> ring = new ArrayList<>(sorted.size());
+        for (int i = 0; i < sorted.size(); i++) {
+            var retireAt = i + 1 < sorted.size() ? sorted.get(i + 1).activatesAt().plus(tokenLifetime) : null;
+            if (retireAt != null && !retireAt.isAfter(now)) {
+                store.remove(sorted.get(i).keyId());
+            } else {
+                ring.add(signingKey(sorted.get(i), retireAt));
+            }
+        }
+        keys = List.copyOf(ring);
+    }
+
+    private void publishNext(Instant notBefore) {
+        var latest = keys.getLast();
+        var earliest = clock.instant().plus(publishAhead);
+        var activatesAt = notBefore.isAfter(earliest) ? notBefore : earliest;
+        if (store.add(storedKey(latest.generation() + 1, generateKeyPair(), activatesAt))) {
+            log.info("Published JWT signing key generation {}, signing from {}", latest.generation() + 1, activatesAt);
+        }
+        refresh();
+    }
+
+    private boolean isAccepted(SigningKey key, Instant now) {
+        return key.retireAt() == null || key.retireAt().isAfter(now);
+    }
+
+    private JwtKeyStore.StoredKey storedKey(long generation, KeyPair keyPair, Instant activatesAt) {
+        try {
+            return new JwtKeyStore.StoredKey(algorithm.publicJwk(keyPair).getKeyID(), generation, algorithm,
+                    keyPair.getPublic().getEncoded(), keyPair.getPrivate().getEncoded(), activatesAt);
+        } catch (JOSEException e) {
+            throw new IllegalStateException("Could not create " + algorithm + " signing key", e);
+        }
+    }
+
+    private SigningKey signingKey(JwtKeyStore.StoredKey stored, Instant retireAt) {
+        var keyAlgorithm = stored.algorithm();
+        try {
+            var keyPair = keyAlgorithm.decodeKeyPair(stored.publicKey(), stored.privateKey());
+            return new SigningKey(stored.keyId(), stored.generation(), keyAlgorithm, keyPair, keyAlgorithm.signer(keyPair),
+                    keyAlgorithm.publicJwk(keyPair), stored.activatesAt(), retireAt);
+        } catch (GeneralSecurityException | JOSEException e) {
+            throw new IllegalStateException("Could not load " + keyAlgorithm + " signing key " + stored.keyId(), e);
+        }
+    }
+
+    private KeyPair generateKeyPair() {
+        try {
+            return algorithm.generateKeyPair();
+        } catch (GeneralSecurityException e) {
+            throw new IllegalStateException("Could not generate " + algorithm + " key pair", e);
+        }
+    }
+}
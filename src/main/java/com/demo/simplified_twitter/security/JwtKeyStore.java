@@ -0,0 +1,42 @@
+package com.demo.simplified_twitter.security;
+
+import java.time.Instant;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+public interface JwtKeyStore {
+
+    record StoredKey(String keyId, long generation, JwtSigningAlgorithm algorithm, byte[] publicKey, byte[] privateKey,
+                     Instant activatesAt) {
+    }
+
+    List<StoredKey> findAll();
+
+    /**
+     * Returns false when another node already stored a key of the same generation.
+     */
+    boolean add(StoredKey key);
+
+    void remove(String keyId);
+
+    static JwtKeyStore inMemory() {
+        Map<Long, StoredKey> keys = new ConcurrentHashMap<>();
+        return new JwtKeyStore() {
+            @Override
+            public List<StoredKey> findAll() {
+                return List.copyOf(keys.values());
+            }
+
+            @Override
+            public boolean add(StoredKey key) {
+                return keys.putIfAbsent(key.generation(), key) == null;
+            }
+
+            @Override
+            public void remove(String keyId) {
+                keys.values().removeIf(key -> key.keyId().equals(keyId));
+            }
+        };
+    }
+}
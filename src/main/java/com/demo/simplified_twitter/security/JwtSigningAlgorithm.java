@@ -0,0 +1,127 @@
+package com.demo.simplified_twitter.security;
+
+import com.nimbusds.jose.JOSEException;
+import com.nimbusds.jose.JWSAlgorithm;
+import com.nimbusds.jose.JWSSigner;
+import com.nimbusds.jose.crypto.ECDSASigner;
+import com.nimbusds.jose.crypto.RSASSASigner;
+import com.nimbusds.jose.jwk.Curve;
+import com.nimbusds.jose.jwk.ECKey;
+import com.nimbusds.jose.jwk.JWK;
+import com.nimbusds.jose.jwk.KeyUse;
+import com.nimbusds.jose.jwk.OctetKeyPair;
+import com.nimbusds.jose.jwk.RSAKey;
+import com.nimbusds.jose.util.Base64URL;
+
+import java.security.GeneralSecurityException;
+import java.security.KeyFactory;
+import java.security.KeyPair;
+import java.security.KeyPairGenerator;
+import java.security.interfaces.ECPrivateKey;
+import java.security.interfaces.ECPublicKey;
+import java.security.interfaces.RSAPublicKey;
+import java.security.spec.ECGenParameterSpec;
+import java.security.spec.PKCS8EncodedKeySpec;
+import java.security.spec.X509EncodedKeySpec;
+import java.util.Arrays;
+
+public enum JwtSigningAlgorithm {
+    RS256(JWSAlgorithm.RS256, "RSA") {
+        @Override
+        KeyPair generateKeyPair() throws GeneralSecurityException {
+            var generator = KeyPairGenerator.getInstance("RSA");
+            generator.initialize(2048);
+            return generator.generateKeyPair();
+        }
+
+        @Override
+        JWSSigner signer(KeyPair keyPair) {
+            return new RSASSASigner(keyPair.getPrivate());
+        }
+
+        @Override
+        JWK publicJwk(KeyPair keyPair) throws JOSEException {
+            return new RSAKey.Builder((RSAPublicKey) keyPair.getPublic())
+                    .keyUse(KeyUse.SIGNATURE)
+                    .algorithm(getJwsAlgorithm())
+                    .keyIDFromThumbprint()
+                    .build();
+        }
+    },
+    ES256(JWSAlgorithm.ES256, "EC") {
+        @Override
+        KeyPair generateKeyPair() throws GeneralSecurityException {
+            var generator = KeyPairGenerator.getInstance("EC");
+            generator.initialize(new ECGenParameterSpec("secp256r1"));
+            return generator.generateKeyPair();
+        }
+
+        @Override
+        JWSSigner signer(KeyPair keyPair) throws JOSEException {
+            return new ECDSASigner((ECPrivateKey) keyPair.getPrivate());
+        }
+
+        @Override
+        JWK publicJwk(KeyPair keyPair) throws JOSEException {
+            return new ECKey.Builder(Curve.P_256, (ECPublicKey) keyPair.getPublic())
+                    .keyUse(KeyUse.SIGNATURE)
+                    .algorithm(getJwsAlgorithm())
+                    .keyIDFromThumbprint()
+                    .build();
+        }
+    },
+    EDDSA(JWSAlgorithm.EdDSA, "Ed25519") {
+        @Override
+        KeyPair generateKeyPair() throws GeneralSecurityException {
+            return KeyPairGenerator.getInstance("Ed25519").generateKeyPair();
+        }
+
+        @Override
+        JWSSigner signer(KeyPair keyPair) {
+            return new Ed25519JwsSigner(keyPair.getPrivate());
+        }
+
+        @Override
+        JWK publicJwk(KeyPair keyPair) throws JOSEException {
+            // The X.509 encoding of an Ed25519 key ends with the 32 raw key bytes that JWK calls "x"
+            var encoded = keyPair.getPublic().getEncoded();
+            var x = Arrays.copyOfRange(encoded, encoded.length - 32, encoded.length);
+            return new OctetKeyPair.Builder(Curve.Ed25519, Base64URL.encode(x))
+                    .keyUse(KeyUse.SIGNATURE)
+                    .algorithm(getJwsAlgorithm())
+                    .keyIDFromThumbprint()
+                    .build();
+        }
+    };
+
+    private final JWSAlgorithm jwsAlgorithm;
+    private final String keyAlgorithm;
+
+    JwtSigningAlgorithm(JWSAlgorithm jwsAlgorithm, String keyAlgorithm) {
+        this.jwsAlgorithm = jwsAlgorithm;
+        this.keyAlgorithm = keyAlgorithm;
+    }
+
+    public JWSAlgorithm getJwsAlgorithm() {
+        return jwsAlgorithm;
+    }
+
+    abstract KeyPair generateKeyPair() throws GeneralSecurityException;
+
+    abstract JWSSigner signer(KeyPair keyPair) throws JOSEException;
+
+    abstract JWK publicJwk(KeyPair keyPair) throws JOSEException;
+
+    KeyPair decodeKeyPair(byte[] publicKey, byte[] privateKey) throws GeneralSecurityException {
+        var keyFactory = KeyFactory.getInstance(keyAlgorithm);
+        return new KeyPair(keyFactory.generatePublic(new X509EncodedKeySpec(publicKey)),
+                keyFactory.generatePrivate(new PKCS8EncodedKeySpec(privateKey)));
+    }
+
+    public static JwtSigningAlgorithm from(String name) {
+        return Arrays.stream(values())
+                .filter(algorithm -> algorithm.jwsAlgorithm.getName().equalsIgnoreCase(name))
+                .findFirst()
+                .orElseThrow(() -> new IllegalArgumentException("Unsupported JWT signing algorithm: " + name));
+    }
+}
@@ -0,0 +1,79 @@
+package com.demo.simplified_twitter.security;
+
+import org.springframework.core.io.Resource;
+
+import javax.crypto.Cipher;
+import javax.crypto.SecretKey;
+import javax.crypto.spec.GCMParameterSpec;
+import javax.crypto.spec.SecretKeySpec;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.security.GeneralSecurityException;
+import java.security.SecureRandom;
+import java.util.Arrays;
+import java.util.Base64;
+
+// AES-GCM over private keys at rest; the key id is authenticated so a ciphertext cannot be moved to another row
+public class KeyEncryptionKey {
+    private static final String TRANSFORMATION = "AES/GCM/NoPadding";
+    private static final int KEY_BYTES = 32;
+    private static final int IV_BYTES = 12;
+    private static final int TAG_BITS = 128;
+
+    private final SecretKey key;
+    private final SecureRandom secureRandom = new SecureRandom();
+
+    public KeyEncryptionKey(byte[] key) {
+        if (key.length != KEY_BYTES) {
+            throw new IllegalArgumentException("jwt.signing.key-encryption-key must be a base64 encoded 256-bit AES key");
+        }
+        this.key = new SecretKeySpec(key, "AES");
+    }
+
+    public static KeyEncryptionKey from(Resource resource) {
+        try {
+            var encoded = resource.getContentAsString(StandardCharsets.US_ASCII).strip();
+            return new KeyEncryptionKey(Base64.getDecoder().decode(encoded));
+        } catch (IOException e) {
+            throw new UncheckedIOException("Could not read jwt.signing.key-encryption-key from " + resource, e);
+        }
+    }
+
+    public static KeyEncryptionKey generate() {
+        var key = new byte[KEY_BYTES];
+        new SecureRandom().nextBytes(key);
+        return new KeyEncryptionKey(key);
+    }
+
+    public byte[] encrypt(byte[] plaintext, String keyId) {
+        var iv = new byte[IV_BYTES];
+        secureRandom.nextBytes(iv);
+        try {
+            var ciphertext = cipher(Cipher.ENCRYPT_MODE, iv, keyId).doFinal(plaintext);
+            return ByteBuffer.allocate(IV_BYTES + ciphertext.length).put(iv).put(ciphertext).array();
+        } catch (GeneralSecurityException e) {
+            throw new IllegalStateException("Could not encrypt signing key " + keyId, e);
+        }
+    }
+
+    public byte[] decrypt(byte[] encrypted, String keyId) {
+        if (encrypted.length <= IV_BYTES) {
+            throw new IllegalStateException("Could not decrypt signing key " + keyId + ": ciphertext is truncated");
+        }
+        try {
+            return cipher(Cipher.DECRYPT_MODE, Arrays.copyOf(encrypted, IV_BYTES), keyId)
+                    .doFinal(encrypted, IV_BYTES, encrypted.length - IV_BYTES);
+        } catch (GeneralSecurityException e) {
+            throw new IllegalStateException("Could not decrypt signing key " + keyId, e);
+        }
+    }
+
+    private Cipher cipher(int mode, byte[] iv, String keyId) throws GeneralSecurityException {
+        var cipher = Cipher.getInstance(TRANSFORMATION);
+        cipher.init(mode, key, new GCMParameterSpec(TAG_BITS, iv));
+        cipher.updateAAD(keyId.getBytes(StandardCharsets.UTF_8));
+        return cipher;
+    }
+}
@@ -0,0 +1,42 @@
+package com.demo.simplified_twitter.security;
+
+import com.nimbusds.jose.JOSEException;
+import com.nimbusds.jose.JOSEObjectType;
+import com.nimbusds.jose.JWSHeader;
+import com.nimbusds.jwt.JWTClaimsSet;
+import com.nimbusds.jwt.SignedJWT;
+import org.springframework.security.oauth2.jwt.Jwt;
+import org.springframework.security.oauth2.jwt.JwtEncoder;
+import org.springframework.security.oauth2.jwt.JwtEncoderParameters;
+import org.springframework.security.oauth2.jwt.JwtEncodingException;
+
+import java.time.Instant;
+import java.util.Date;
+
+public class KeyRingJwtEncoder implements JwtEncoder {
+
+    private final JwtKeyRing keyRing;
+
+    public KeyRingJwtEncoder(JwtKeyRing keyRing) {
+        this.keyRing = keyRing;
+    }
+
+    @Override
+    public Jwt encode(JwtEncoderParameters parameters) throws JwtEncodingException {
+        var signingKey = keyRing.signingKey();
+        var header = new JWSHeader.Builder(signingKey.algorithm().getJwsAlgorithm())
+                .keyID(signingKey.keyId())
+                .type(JOSEObjectType.JWT)
+                .build();
+        var claims = parameters.getClaims();
+        var claimsSet = new JWTClaimsSet.Builder();
+        claims.getClaims().forEach((name, value) -> claimsSet.claim(name, value instanceof Instant instant ? Date.from(instant) : value));
+        var signedJwt = new SignedJWT(header, claimsSet.build());
+        try {
+            signedJwt.sign(signingKey.signer());
+        } catch (JOSEException e) {
+            throw new JwtEncodingException("Failed to sign the JWT: " + e.getMessage(), e);
+        }
+        return new Jwt(signedJwt.serialize(), claims.getIssuedAt(), claims.getExpiresAt(), header.toJSONObject(), claims.getClaims());
+    }
+}
@@ -0,0 +1,26 @@
+package com.demo.simplified_twitter.security;
+
+import org.springframework.security.oauth2.jwt.BadJwtException;
+import org.springframework.security.oauth2.jwt.Jwt;
+import org.springframework.security.oauth2.jwt.JwtDecoder;
+import org.springframework.security.oauth2.jwt.JwtException;
+
+public class RevocationCheckingJwtDecoder implements JwtDecoder {
+
+    private final JwtDecoder delegate;
+    private final TokenDenylist denylist;
+
+    public RevocationCheckingJwtDecoder(JwtDecoder delegate, TokenDenylist denylist) {
+        this.delegate = delegate;
+        this.denylist = denylist;
+    }
+
+    @Override
+    public Jwt decode(String token) throws JwtException {
+        var jwt = delegate.decode(token);
+        if (jwt.getId() != null && denylist.isRevoked(jwt.getId())) {
+            throw new BadJwtException("Token has been revoked");
+        }
+        return jwt;
+    }
+}
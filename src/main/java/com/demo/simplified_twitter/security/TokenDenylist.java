@@ -0,0 +1,51 @@
+package com.demo.simplified_twitter.security;
+
+import com.demo.simplified_twitter.support.BloomFilter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+
+import java.time.Instant;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+public class TokenDenylist {
+    private final long expectedRevocations;
+    private final double falsePositiveProbability;
+    private final Map<String, Instant> revoked = new ConcurrentHashMap<>();
+    private volatile BloomFilter filter;
+
+    public TokenDenylist(long expectedRevocations, double falsePositiveProbability) {
+        this.expectedRevocations = expectedRevocations;
+        this.falsePositiveProbability = falsePositiveProbability;
+        this.filter = new BloomFilter(expectedRevocations, falsePositiveProbability);
+    }
+
+    public void bindTo(MeterRegistry meterRegistry) {
+        Gauge.builder("auth.jwt.revoked", revoked, Map::size).register(meterRegistry);
+    }
+
+    public boolean isRevoked(String tokenId) {
+        return filter.mightContain(tokenId) && revoked.containsKey(tokenId);
+    }
+
+    public synchronized void add(String tokenId, Instant expiresAt) {
+        revoked.put(tokenId, expiresAt);
+        filter.put(tokenId);
+    }
+
+    public synchronized int prune(Instant now) {
+        int before = revoked.size();
+        revoked.values().removeIf(expiresAt -> !expiresAt.isAfter(now));
+        int removed = before - revoked.size();
+        if (removed > 0) {
+            var rebuilt = new BloomFilter(Math.max(expectedRevocations, revoked.size()), falsePositiveProbability);
+            revoked.keySet().forEach(rebuilt::put);
+            filter = rebuilt;
+        }
+        return removed;
+    }
+
+    public int size() {
+        return revoked.size();
+    }
+}
@@ -0,0 +1,50 @@
+package com.demo.simplified_twitter.service;
+
+import com.demo.simplified_twitter.repositories.TweetRepository;
+import com.demo.simplified_twitter.repositories.UserRepository;
+import com.demo.simplified_twitter.repositories.projections.TweetsVersionRow;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.Set;
+import java.util.UUID;
+
+@Component
+public class ChangeVersions {
+    private final UserRepository userRepository;
+    private final TweetRepository tweetRepository;
+
+    public ChangeVersions(UserRepository userRepository, TweetRepository tweetRepository) {
+        this.userRepository = userRepository;
+        this.tweetRepository = tweetRepository;
+    }
+
+    public String usersTag() {
+        var version = userRepository.findVersion();
+        var latest = version.maxCreatedAt() == null ? 0 : version.maxCreatedAt().toEpochMilli();
+        return tag("u" + Long.toHexString(version.count()) + "." + Long.toHexString(latest));
+    }
+
+    public String tweetsTag() {
+        return tag("t" + tweets(tweetRepository.findVersion()));
+    }
+
+    public String userTweetsTag(UUID userId) {
+        return tag("a" + tweets(tweetRepository.findVersionByUserIds(Set.of(userId))));
+    }
+
+    public String timelineTag(UUID userId, Set<UUID> following) {
+        var authors = new ArrayList<>(following);
+        authors.add(userId);
+        return tag("h" + Integer.toHexString(following.hashCode()) + "." + tweets(tweetRepository.findVersionByUserIds(authors)));
+    }
+
+    private static String tweets(TweetsVersionRow version) {
+        var latest = version.maxTweetId() == null ? 0 : version.maxTweetId();
+        return Long.toHexString(version.count()) + "." + Long.toHexString(latest);
+    }
+
+    private static String tag(String version) {
+        return "W/\"" + version + "\"";
+    }
+}
@@ -0,0 +1,221 @@
+package com.demo.simplified_twitter.service;
+
+import com.demo.simplified_twitter.entities.Engagement;
+import com.demo.simplified_twitter.events.EngagementChangedEvent;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.SmartLifecycle;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+
+@Component
+public class EngagementCounters implements SmartLifecycle {
+    private static final Logger log = LoggerFactory.getLogger(EngagementCounters.class);
+    private static final String UPSERT_COUNTERS = "insert into tb_tweet_counters (tweet_id, likes, retweets) values (?, ?, ?) " +
+            "on conflict (tweet_id) do update set likes = tb_tweet_counters.likes + excluded.likes, " +
+            "retweets = tb_tweet_counters.retweets + excluded.retweets";
+
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate transactionTemplate;
+    private final int flushSize;
+    private final Duration flushInterval;
+    private final Map<Long, Deltas> pending = new ConcurrentHashMap<>();
+    // Odd while a flush is committing and settling; only the flushing thread changes it
+    private final AtomicLong flushSequence = new AtomicLong();
+    private final Counter failedCounter;
+    private final Timer flushTimer;
+    private final DistributionSummary flushSizeSummary;
+    private volatile boolean running;
+    private ScheduledExecutorService flusher;
+
+    public EngagementCounters(JdbcTemplate jdbcTemplate,
+                              PlatformTransactionManager transactionManager,
+                              MeterRegistry meterRegistry,
+                              @Value("${tweets.engagement.flush-size}") int flushSize,
+                              @Value("${tweets.engagement.flush-interval}") Duration flushInterval) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.flushSize = flushSize;
+        this.flushInterval = flushInterval;
+        this.failedCounter = meterRegistry.counter("tweets.engagement.flush.failed");
+        this.flushTimer = Timer.builder("tweets.engagement.flush.latency").publishPercentileHistogram().register(meterRegistry);
+        this.flushSizeSummary = meterRegistry.summary("tweets.engagement.flush.size");
+        Gauge.builder("tweets.engagement.pending", pending, Map::size).register(meterRegistry);
+    }
+
+    @TransactionalEventListener
+    public void onEngagementChanged(EngagementChangedEvent event) {
+        add(event.tweetId(), event.type(), event.delta());
+    }
+
+    public long[] unflushed(Long tweetId) {
+        var deltas = pending.get(tweetId);
+        if (deltas == null) {
+            return new long[]{0, 0};
+        }
+        return new long[]{deltas.likes.sum(), deltas.retweets.sum()};
+    }
+
+    /**
+     * Odd while a flush is committing.
+     */
+    public long flushSequence() {
+        return flushSequence.get();
+    }
+
+    void add(Long tweetId, Engagement.Type type, long delta) {
+        while (delta != 0) {
+            var deltas = pending.computeIfAbsent(tweetId, id -> new Deltas());
+            var adder = deltas.adder(type);
+            adder.add(delta);
+            if (!deltas.retired) {
+                return;
+            }
+            // The flush evicted this entry meanwhile; whatever it did not claim moves to a fresh one
+            delta = adder.sumThenReset();
+        }
+    }
+
+    void flush() {
+        List<Row> rows = new ArrayList<>();
+        for (var entry : pending.entrySet()) {
+            var deltas = entry.getValue();
+            long likes = deltas.likes.sum();
+            long retweets = deltas.retweets.sum();
+            if (likes != 0 || retweets != 0) {
+                rows.add(new Row(entry.getKey(), deltas, likes, retweets));
+            } else {
+                evict(entry.getKey(), deltas);
+            }
+        }
+        if (rows.isEmpty()) {
+            return;
+        }
+        // Ordered by tweet id so that nodes flushing at the same time lock the counter rows in the same order
+        rows.sort((left, right) -> Long.compare(left.tweetId(), right.tweetId()));
+        flushSizeSummary.record(rows.size());
+        try {
+            flushTimer.record(() -> writeAndSettle(rows));
+        } catch (RuntimeException e) {
+            log.warn("Flush of {} tweet counters failed, retrying one by one", rows.size(), e);
+            for (Row row : rows) {
+                try {
+                    writeAndSettle(List.of(row));
+                } catch (DataIntegrityViolationException rowException) {
+                    // The tweet was deleted, which also removed its counters
+                    failedCounter.increment();
+                    row.settle();
+                } catch (RuntimeException rowException) {
+                    log.debug("Keeping counters of tweet {} for the next flush", row.tweetId(), rowException);
+                }
+            }
+        }
+    }
+
+    @Override
+    public void start() {
+        running = true;
+        flusher = Executors.newSingleThreadScheduledExecutor(
+                Thread.ofPlatform().name("engagement-counters-flusher").daemon().factory());
+        long intervalMillis = flushInterval.toMillis();
+        flusher.scheduleWithFixedDelay(this::flushQuietly, intervalMillis, intervalMillis, TimeUnit.MILLISECONDS);
+    }
+
+    @Override
+    public void stop() {
+        running = false;
+        if (flusher == null) {
+            return;
+        }
+        flusher.shutdown();
+        try {
+            flusher.awaitTermination(flushInterval.toMillis() + 10_000, TimeUnit.MILLISECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        flushQuietly();
+    }
+
+    @Override
+    public boolean isRunning() {
+        return running;
+    }
+
+    @Override
+    public int getPhase() {
+        // Stop after the web server so that likes of in-flight requests make it into the final flush
+        return Integer.MAX_VALUE - 4096;
+    }
+
+    private void flushQuietly() {
+        try {
+            flush();
+        } catch (RuntimeException e) {
+            log.error("Could not flush tweet counters", e);
+        }
+    }
+
+    private void writeAndSettle(List<Row> rows) {
+        try {
+            transactionTemplate.executeWithoutResult(status -> {
+                jdbcTemplate.batchUpdate(UPSERT_COUNTERS, rows, flushSize, (statement, row) -> {
+                    statement.setLong(1, row.tweetId());
+                    statement.setLong(2, row.likes());
+                    statement.setLong(3, row.retweets());
+                });
+                // Only the commit and the settling make the rows visible twice or not at all, so only they are flagged
+                flushSequence.incrementAndGet();
+            });
+            rows.forEach(Row::settle);
+        } finally {
+            if (flushSequence.get() % 2 != 0) {
+                flushSequence.incrementAndGet();
+            }
+        }
+    }
+
+    private void evict(Long tweetId, Deltas deltas) {
+        deltas.retired = true;
+        pending.remove(tweetId, deltas);
+        add(tweetId, Engagement.Type.LIKE, deltas.likes.sumThenReset());
+        add(tweetId, Engagement.Type.RETWEET, deltas.retweets.sumThenReset());
+    }
+
+    private static final class Deltas {
+        private final LongAdder likes = new LongAdder();
+        private final LongAdder retweets = new LongAdder();
+        private volatile boolean retired;
+
+        private LongAdder adder(Engagement.Type type) {
+            return type == Engagement.Type.LIKE ? likes : retweets;
+        }
+    }
+
+    private record Row(Long tweetId, Deltas deltas, long likes, long retweets) {
+        void settle() {
+            deltas.likes.add(-likes);
+            deltas.retweets.add(-retweets);
+        }
+    }
+}
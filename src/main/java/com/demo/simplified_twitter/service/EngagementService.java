@@ -0,0 +1,113 @@
+package com.demo.simplified_twitter.service;
+
+import com.demo.simplified_twitter.datasource.ReadYourWrites;
+import com.demo.simplified_twitter.dto.EngagementDto;
+import com.demo.simplified_twitter.entities.Engagement;
+import com.demo.simplified_twitter.events.EngagementChangedEvent;
+import com.demo.simplified_twitter.exceptions.InvalidRequestException;
+import com.demo.simplified_twitter.exceptions.ResourceNotFoundException;
+import com.demo.simplified_twitter.repositories.EngagementRepository;
+import com.demo.simplified_twitter.repositories.TweetCountersRepository;
+import com.demo.simplified_twitter.repositories.projections.EngagementRow;
+import com.demo.simplified_twitter.repositories.projections.TweetCountersRow;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.security.oauth2.server.resource.authentication.JwtAuthenticationToken;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+@Service
+public class EngagementService {
+    private static final int MAX_READ_ATTEMPTS = 3;
+
+    private final EngagementRepository engagementRepository;
+    private final TweetCountersRepository tweetCountersRepository;
+    private final EngagementCounters engagementCounters;
+    private final ApplicationEventPublisher eventPublisher;
+    private final ReadYourWrites readYourWrites;
+    private final int maxBatchSize;
+
+    public EngagementService(EngagementRepository engagementRepository,
+                             TweetCountersRepository tweetCountersRepository,
+                             EngagementCounters engagementCounters,
+                             ApplicationEventPublisher eventPublisher,
+                             ReadYourWrites readYourWrites,
+                             @Value("${tweets.batch.max-size}") int maxBatchSize) {
+        this.engagementRepository = engagementRepository;
+        this.tweetCountersRepository = tweetCountersRepository;
+        this.engagementCounters = engagementCounters;
+        this.eventPublisher = eventPublisher;
+        this.readYourWrites = readYourWrites;
+        this.maxBatchSize = maxBatchSize;
+    }
+
+    @Transactional
+    public void engage(Long tweetId, Engagement.Type type, JwtAuthenticationToken jwtAuthenticationToken) {
+        var userId = UUID.fromString(jwtAuthenticationToken.getName());
+        int inserted;
+        try {
+            inserted = engagementRepository.insertIfAbsent(tweetId, userId, type.name());
+        } catch (DataIntegrityViolationException e) {
+            throw new ResourceNotFoundException("Tweet with id: " + tweetId + " not found");
+        }
+        if (inserted > 0) {
+            eventPublisher.publishEvent(new EngagementChangedEvent(tweetId, type, 1));
+            readYourWrites.recordWrite(jwtAuthenticationToken.getName());
+        }
+    }
+
+    @Transactional
+    public void disengage(Long tweetId, Engagement.Type type, JwtAuthenticationToken jwtAuthenticationToken) {
+        var userId = UUID.fromString(jwtAuthenticationToken.getName());
+        if (engagementRepository.deleteByTweetIdAndUserIdAndType(tweetId, userId, type) > 0) {
+            eventPublisher.publishEvent(new EngagementChangedEvent(tweetId, type, -1));
+            readYourWrites.recordWrite(jwtAuthenticationToken.getName());
+        }
+    }
+
+    @Transactional
+    public List<EngagementDto> findEngagement(List<Long> tweetIds, JwtAuthenticationToken jwtAuthenticationToken) {
+        if (tweetIds == null || tweetIds.isEmpty()) {
+            throw new InvalidRequestException("At least one tweet id must be informed");
+        }
+        var distinctIds = new LinkedHashSet<>(tweetIds);
+        if (distinctIds.size() > maxBatchSize) {
+            throw new InvalidRequestException("Engagement can be read for at most " + maxBatchSize + " tweets");
+        }
+        var userId = UUID.fromString(jwtAuthenticationToken.getName());
+        Set<EngagementRow> engaged = new HashSet<>(engagementRepository.findRowsByUserIdAndTweetIds(userId, distinctIds));
+
+        List<EngagementDto> engagement = new ArrayList<>(distinctIds.size());
+        for (int attempt = 1; ; attempt++) {
+            long flushSequence = engagementCounters.flushSequence();
+            Map<Long, TweetCountersRow> persisted = tweetCountersRepository.findRowsByTweetIds(distinctIds)
+                    .stream()
+                    .collect(Collectors.toMap(TweetCountersRow::tweetId, Function.identity()));
+            engagement.clear();
+            for (Long tweetId : distinctIds) {
+                var counters = persisted.get(tweetId);
+                var unflushed = engagementCounters.unflushed(tweetId);
+                engagement.add(new EngagementDto(tweetId,
+                        (counters == null ? 0 : counters.likes()) + unflushed[0],
+                        (counters == null ? 0 : counters.retweets()) + unflushed[1],
+                        engaged.contains(new EngagementRow(tweetId, Engagement.Type.LIKE)),
+                        engaged.contains(new EngagementRow(tweetId, Engagement.Type.RETWEET))));
+            }
+            boolean consistent = flushSequence % 2 == 0 && flushSequence == engagementCounters.flushSequence();
+            if (consistent || attempt == MAX_READ_ATTEMPTS) {
+                return engagement;
+            }
+        }
+    }
+}
@@ -0,0 +1,54 @@
+package com.demo.simplified_twitter.service;
+
+import com.demo.simplified_twitter.entities.FollowId;
+import com.demo.simplified_twitter.events.FollowChangedEvent;
+import com.demo.simplified_twitter.exceptions.InvalidRequestException;
+import com.demo.simplified_twitter.exceptions.ResourceNotFoundException;
+import com.demo.simplified_twitter.repositories.FollowRepository;
+import com.demo.simplified_twitter.repositories.UserRepository;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.security.oauth2.server.resource.authentication.JwtAuthenticationToken;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.UUID;
+
+@Service
+public class FollowService {
+    private final FollowRepository followRepository;
+    private final UserRepository userRepository;
+    private final ApplicationEventPublisher eventPublisher;
+
+    public FollowService(FollowRepository followRepository,
+                         UserRepository userRepository,
+                         ApplicationEventPublisher eventPublisher) {
+        this.followRepository = followRepository;
+        this.userRepository = userRepository;
+        this.eventPublisher = eventPublisher;
+    }
+
+    @Transactional
+    public void follow(UUID followedId, JwtAuthenticationToken jwtAuthenticationToken) {
+        var followerId = UUID.fromString(jwtAuthenticationToken.getName());
+        if (followerId.equals(followedId)) {
+            throw new InvalidRequestException("Users cannot follow themselves");
+        }
+        if (!userRepository.existsById(followedId)) {
+            throw new ResourceNotFoundException("User with id: " + followedId + " not found");
+        }
+        if (followRepository.insertIfAbsent(followerId, followedId) > 0) {
+            eventPublisher.publishEvent(new FollowChangedEvent(followerId, followedId, true));
+        }
+    }
+
+    @Transactional
+    public void unfollow(UUID followedId, JwtAuthenticationToken jwtAuthenticationToken) {
+        var followerId = UUID.fromString(jwtAuthenticationToken.getName());
+        var followId = new FollowId(followerId, followedId);
+        if (!followRepository.existsById(followId)) {
+            return;
+        }
+        followRepository.deleteById(followId);
+        eventPublisher.publishEvent(new FollowChangedEvent(followerId, followedId, false));
+    }
+}
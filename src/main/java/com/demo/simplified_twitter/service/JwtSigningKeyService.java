@@ -0,0 +1,65 @@
+package com.demo.simplified_twitter.service;
+
+import com.demo.simplified_twitter.entities.JwtSigningKey;
+import com.demo.simplified_twitter.repositories.JwtSigningKeyRepository;
+import com.demo.simplified_twitter.security.JwtKeyStore;
+import com.demo.simplified_twitter.security.JwtSigningAlgorithm;
+import com.demo.simplified_twitter.security.KeyEncryptionKey;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.io.Resource;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.List;
+
+@Service
+public class JwtSigningKeyService implements JwtKeyStore {
+    private final JwtSigningKeyRepository jwtSigningKeyRepository;
+    private final TransactionTemplate transactionTemplate;
+    private final KeyEncryptionKey keyEncryptionKey;
+
+    @Autowired
+    public JwtSigningKeyService(JwtSigningKeyRepository jwtSigningKeyRepository,
+                                PlatformTransactionManager transactionManager,
+                                @Value("${jwt.signing.key-encryption-key}") Resource keyEncryptionKey) {
+        this(jwtSigningKeyRepository, transactionManager, KeyEncryptionKey.from(keyEncryptionKey));
+    }
+
+    JwtSigningKeyService(JwtSigningKeyRepository jwtSigningKeyRepository,
+                         PlatformTransactionManager transactionManager,
+                         KeyEncryptionKey keyEncryptionKey) {
+        this.jwtSigningKeyRepository = jwtSigningKeyRepository;
+        // Read-write on purpose: read-only transactions are routed to a replica
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.keyEncryptionKey = keyEncryptionKey;
+    }
+
+    @Override
+    public List<StoredKey> findAll() {
+        return transactionTemplate.execute(status -> jwtSigningKeyRepository.findAll().stream()
+                .map(key -> new StoredKey(key.getKeyId(), key.getGeneration(), JwtSigningAlgorithm.valueOf(key.getAlgorithm()),
+                        key.getPublicKey(), keyEncryptionKey.decrypt(key.getEncryptedPrivateKey(), key.getKeyId()),
+                        key.getActivatesAt()))
+                .toList());
+    }
+
+    @Override
+    public boolean add(StoredKey key) {
+        try {
+            transactionTemplate.executeWithoutResult(status -> jwtSigningKeyRepository.saveAndFlush(new JwtSigningKey(key.keyId(),
+                    key.generation(), key.algorithm().name(), key.publicKey(), keyEncryptionKey.encrypt(key.privateKey(), key.keyId()),
+                    key.activatesAt())));
+            return true;
+        } catch (DataIntegrityViolationException e) {
+            return false;
+        }
+    }
+
+    @Override
+    public void remove(String keyId) {
+        transactionTemplate.executeWithoutResult(status -> jwtSigningKeyRepository.deleteById(keyId));
+    }
+}
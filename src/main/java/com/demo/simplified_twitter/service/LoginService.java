@@ -1,8 +1,11 @@
 package com.demo.simplified_twitter.service;
 
+import com.demo.simplified_twitter.datasource.ReadYourWrites;
 import com.demo.simplified_twitter.dto.JwtDto;
 import com.demo.simplified_twitter.dto.LoginRequestDto;
+import com.demo.simplified_twitter.dto.RefreshTokenRequestDto;
 import com.demo.simplified_twitter.exceptions.BadCredentialsException;
+import io.micrometer.core.annotation.Timed;
 import org.springframework.security.crypto.password.PasswordEncoder;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
@@ -12,23 +15,38 @@ public class LoginService {
 
     private final UserService userService;
     private final TokenService tokenService;
+    private final RefreshTokenService refreshTokenService;
+    private final ReadYourWrites readYourWrites;
     private final PasswordEncoder passwordEncoder;
 
     public LoginService(UserService userService,
                         TokenService tokenService,
+                        RefreshTokenService refreshTokenService,
+                        ReadYourWrites readYourWrites,
                         PasswordEncoder passwordEncoder) {
         this.userService = userService;
         this.tokenService = tokenService;
+        this.refreshTokenService = refreshTokenService;
+        this.readYourWrites = readYourWrites;
         this.passwordEncoder = passwordEncoder;
     }
 
-    @Transactional(readOnly = true)
+    @Timed(value = "auth.login", histogram = true)
     public JwtDto login(LoginRequestDto loginRequest) {
-        var user = userService.findByUsername(loginRequest.username());
+        var user = readYourWrites.callAs(ReadYourWrites.usernameSubject(loginRequest.username()),
+                () -> userService.findByUsername(loginRequest.username()));
         if (!this.isLoginCorrect(loginRequest, user.password())) {
             throw new BadCredentialsException("User or password is invalid");
         }
-        return tokenService.getJwt(user);
+        return tokenService.getJwt(user).withRefreshToken(refreshTokenService.issue(user.id()));
+    }
+
+    @Timed(value = "auth.refresh", histogram = true)
+    @Transactional(noRollbackFor = BadCredentialsException.class)
+    public JwtDto refresh(RefreshTokenRequestDto refreshTokenRequest) {
+        var refreshToken = refreshTokenService.consume(refreshTokenRequest.refreshToken());
+        var user = userService.findById(refreshToken.userId());
+        return tokenService.getJwt(user).withRefreshToken(refreshTokenService.issue(user.id(), refreshToken.familyId()));
     }
 
     private boolean isLoginCorrect(LoginRequestDto loginRequest, String password) {
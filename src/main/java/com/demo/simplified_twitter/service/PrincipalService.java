@@ -0,0 +1,51 @@
+package com.demo.simplified_twitter.service;
+
+import com.demo.simplified_twitter.dto.PrincipalDto;
+import com.demo.simplified_twitter.exceptions.ResourceNotFoundException;
+import com.demo.simplified_twitter.repositories.UserRepository;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.security.oauth2.server.resource.authentication.JwtAuthenticationToken;
+import org.springframework.stereotype.Service;
+
+import java.time.Duration;
+import java.util.UUID;
+
+@Service
+public class PrincipalService {
+    private final UserRepository userRepository;
+    private final Cache<UUID, PrincipalDto> principals;
+
+    public PrincipalService(UserRepository userRepository,
+                            MeterRegistry meterRegistry,
+                            @Value("${principal.cache.maximum-size}") long maximumSize,
+                            @Value("${principal.cache.ttl}") Duration ttl) {
+        this.userRepository = userRepository;
+        this.principals = Caffeine.newBuilder()
+                .maximumSize(maximumSize)
+                .expireAfterWrite(ttl)
+                .recordStats()
+                .build();
+        CaffeineCacheMetrics.monitor(meterRegistry, principals, "principals");
+    }
+
+    public PrincipalDto resolve(JwtAuthenticationToken jwtAuthenticationToken) {
+        var userId = UUID.fromString(jwtAuthenticationToken.getName());
+        var cached = principals.getIfPresent(userId);
+        if (cached != null) {
+            return cached;
+        }
+        // Loaded outside of the cache's compute lock so a JDBC wait never pins a virtual thread's carrier
+        var principal = userRepository.findPrincipalById(userId)
+                .orElseThrow(() -> new ResourceNotFoundException("User with id: " + jwtAuthenticationToken.getName() + " not found"));
+        principals.put(userId, principal);
+        return principal;
+    }
+
+    public void evict(UUID userId) {
+        principals.invalidate(userId);
+    }
+}
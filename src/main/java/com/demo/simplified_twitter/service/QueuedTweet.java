@@ -0,0 +1,13 @@
+package com.demo.simplified_twitter.service;
+
+import com.demo.simplified_twitter.dto.TweetResponseDto;
+
+import java.time.Instant;
+import java.util.UUID;
+
+record QueuedTweet(Long id, UUID userId, String username, String content, Instant createdAt) {
+
+    TweetResponseDto toView() {
+        return new TweetResponseDto(id, userId, username, content, createdAt);
+    }
+}
@@ -0,0 +1,148 @@
+package com.demo.simplified_twitter.service;
+
+import com.demo.simplified_twitter.dto.RefreshTokenDto;
+import com.demo.simplified_twitter.entities.RefreshToken;
+import com.demo.simplified_twitter.exceptions.BadCredentialsException;
+import com.demo.simplified_twitter.repositories.RefreshTokenRepository;
+import com.demo.simplified_twitter.repositories.UserRepository;
+import com.demo.simplified_twitter.repositories.projections.RefreshTokenRow;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.SmartLifecycle;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.security.SecureRandom;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Base64;
+import java.util.UUID;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+@Service
+public class RefreshTokenService implements SmartLifecycle {
+    private static final Logger log = LoggerFactory.getLogger(RefreshTokenService.class);
+    private static final int TOKEN_BYTES = 32;
+
+    private final RefreshTokenRepository refreshTokenRepository;
+    private final UserRepository userRepository;
+    private final Long expiresIn;
+    private final Duration purgeInterval;
+    private final SecureRandom secureRandom = new SecureRandom();
+    // Unused tokens issued by this node, so that rotating one does not need a select
+    private final Cache<String, RefreshTokenRow> index;
+    private ScheduledExecutorService scheduler;
+
+    public RefreshTokenService(RefreshTokenRepository refreshTokenRepository,
+                               UserRepository userRepository,
+                               @Value("${jwt.refresh-token.expires-in}") Long expiresIn,
+                               @Value("${jwt.refresh-token.index.maximum-size}") long indexMaximumSize,
+                               @Value("${jwt.refresh-token.purge-interval}") Duration purgeInterval) {
+        this.refreshTokenRepository = refreshTokenRepository;
+        this.userRepository = userRepository;
+        this.expiresIn = expiresIn;
+        this.purgeInterval = purgeInterval;
+        this.index = Caffeine.newBuilder()
+                .maximumSize(indexMaximumSize)
+                .expireAfterWrite(Duration.ofSeconds(expiresIn))
+                .build();
+    }
+
+    @Transactional
+    public RefreshTokenDto issue(UUID userId) {
+        return issue(userId, UUID.randomUUID());
+    }
+
+    @Transactional
+    public RefreshTokenDto issue(UUID userId, UUID familyId) {
+        var bytes = new byte[TOKEN_BYTES];
+        secureRandom.nextBytes(bytes);
+        var token = Base64.getUrlEncoder().withoutPadding().encodeToString(bytes);
+        var tokenHash = hash(token);
+        var expiresAt = Instant.now().plusSeconds(expiresIn);
+        refreshTokenRepository.save(new RefreshToken(tokenHash, familyId, userRepository.getReferenceById(userId), expiresAt));
+        index.put(tokenHash, new RefreshTokenRow(familyId, userId, expiresAt));
+        return new RefreshTokenDto(token, expiresIn);
+    }
+
+    @Transactional(noRollbackFor = BadCredentialsException.class)
+    public RefreshTokenRow consume(String token) {
+        if (token == null || token.isBlank()) {
+            throw invalidToken();
+        }
+        var tokenHash = hash(token);
+        var row = index.asMap().remove(tokenHash);
+        if (row == null) {
+            row = refreshTokenRepository.findRowByTokenHash(tokenHash).orElseThrow(this::invalidToken);
+        }
+        var now = Instant.now();
+        if (!row.expiresAt().isAfter(now)) {
+            throw invalidToken();
+        }
+        if (refreshTokenRepository.markUsed(tokenHash, now) == 0) {
+            log.warn("Refresh token reuse detected for user {}, revoking token family {}", row.userId(), row.familyId());
+            revokeFamily(row.familyId());
+            throw invalidToken();
+        }
+        return row;
+    }
+
+    public int purgeExpired() {
+        int purged = refreshTokenRepository.deleteExpired(Instant.now());
+        if (purged > 0) {
+            log.info("Purged {} expired refresh tokens", purged);
+        }
+        return purged;
+    }
+
+    @Override
+    public void start() {
+        scheduler = Executors.newSingleThreadScheduledExecutor(Thread.ofPlatform().name("refresh-token-purge").daemon().factory());
+        scheduler.scheduleWithFixedDelay(() -> {
+            try {
+                purgeExpired();
+            } catch (RuntimeException e) {
+                log.warn("Failed to purge expired refresh tokens", e);
+            }
+        }, purgeInterval.toMillis(), purgeInterval.toMillis(), TimeUnit.MILLISECONDS);
+    }
+
+    @Override
+    public void stop() {
+        if (scheduler != null) {
+            scheduler.shutdownNow();
+            scheduler = null;
+        }
+    }
+
+    @Override
+    public boolean isRunning() {
+        return scheduler != null;
+    }
+
+    private void revokeFamily(UUID familyId) {
+        refreshTokenRepository.revokeFamily(familyId);
+        index.asMap().values().removeIf(row -> row.familyId().equals(familyId));
+    }
+
+    private BadCredentialsException invalidToken() {
+        return new BadCredentialsException("Refresh token is invalid");
+    }
+
+    private static String hash(String token) {
+        try {
+            var digest = MessageDigest.getInstance("SHA-256").digest(token.getBytes(StandardCharsets.US_ASCII));
+            return Base64.getUrlEncoder().withoutPadding().encodeToString(digest);
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+}
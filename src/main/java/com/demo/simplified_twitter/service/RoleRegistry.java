@@ -0,0 +1,87 @@
+package com.demo.simplified_twitter.service;
+
+import com.demo.simplified_twitter.dto.RoleDto;
+import com.demo.simplified_twitter.entities.Role;
+import com.demo.simplified_twitter.exceptions.ResourceNotFoundException;
+import com.demo.simplified_twitter.repositories.RoleRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.context.SmartLifecycle;
+import org.springframework.stereotype.Component;
+
+import java.util.Collection;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+@Component
+public class RoleRegistry implements SmartLifecycle {
+    private static final Logger log = LoggerFactory.getLogger(RoleRegistry.class);
+
+    private record Snapshot(Map<String, RoleDto> byName, Map<Long, RoleDto> byId) {
+    }
+
+    private final RoleRepository roleRepository;
+    private volatile Snapshot snapshot = new Snapshot(Map.of(), Map.of());
+    private volatile boolean running;
+
+    public RoleRegistry(RoleRepository roleRepository) {
+        this.roleRepository = roleRepository;
+    }
+
+    public void refresh() {
+        var roles = roleRepository.findAll().stream().map(role -> new RoleDto(role.getId(), role.getName())).toList();
+        snapshot = new Snapshot(
+                roles.stream().collect(Collectors.toUnmodifiableMap(RoleDto::name, Function.identity())),
+                roles.stream().collect(Collectors.toUnmodifiableMap(RoleDto::id, Function.identity())));
+        log.info("Loaded {} roles", roles.size());
+    }
+
+    public RoleDto byName(String name) {
+        var role = snapshot.byName().get(name);
+        if (role == null) {
+            throw new ResourceNotFoundException("Role not found");
+        }
+        return role;
+    }
+
+    public Set<RoleDto> byIds(Collection<Long> ids) {
+        var byId = snapshot.byId();
+        return ids.stream().map(byId::get).filter(role -> role != null).collect(Collectors.toSet());
+    }
+
+    public Collection<RoleDto> all() {
+        return snapshot.byId().values();
+    }
+
+    public Role reference(Role.Values value) {
+        var roleDto = byName(value.name());
+        var role = new Role();
+        role.setId(roleDto.id());
+        role.setName(roleDto.name());
+        return role;
+    }
+
+    @Override
+    public void start() {
+        refresh();
+        running = true;
+    }
+
+    @Override
+    public void stop() {
+        running = false;
+    }
+
+    @Override
+    public boolean isRunning() {
+        return running;
+    }
+
+    @Override
+    public int getPhase() {
+        // Start before the web server so that no request sees an empty registry
+        return 0;
+    }
+}
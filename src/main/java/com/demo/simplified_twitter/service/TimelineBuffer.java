@@ -0,0 +1,158 @@
+package com.demo.simplified_twitter.service;
+
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.locks.ReentrantLock;
+
+class TimelineBuffer {
+
+    private final long[] ids;
+    private final Set<UUID> following;
+    private final ReentrantLock lock = new ReentrantLock();
+    private int head;
+    private int size;
+    // Set once an id older than the oldest buffered one may exist outside the buffer
+    private boolean truncated;
+    private Instant syncedAt = Instant.EPOCH;
+
+    TimelineBuffer(int capacity, Set<UUID> following) {
+        this.ids = new long[capacity];
+        this.following = following;
+    }
+
+    Set<UUID> following() {
+        return following;
+    }
+
+    void lock() {
+        lock.lock();
+    }
+
+    void unlock() {
+        lock.unlock();
+    }
+
+    Instant syncedAt() {
+        lock.lock();
+        try {
+            return syncedAt;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    void synced(Instant at) {
+        lock.lock();
+        try {
+            if (at.isAfter(syncedAt)) {
+                syncedAt = at;
+            }
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    void pushAll(Collection<Long> tweetIds) {
+        lock.lock();
+        try {
+            tweetIds.forEach(this::insert);
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    List<Long> page(Long beforeId, int limit) {
+        lock.lock();
+        try {
+            int end = beforeId == null ? size : lowerBound(beforeId);
+            int start = Math.max(0, end - limit);
+            List<Long> page = new ArrayList<>(end - start);
+            for (int i = end - 1; i >= start; i--) {
+                page.add(ids[physical(i)]);
+            }
+            return page;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    void removeAll(Collection<Long> tweetIds) {
+        lock.lock();
+        try {
+            int kept = 0;
+            for (int i = 0; i < size; i++) {
+                long id = ids[physical(i)];
+                if (!tweetIds.contains(id)) {
+                    ids[physical(kept++)] = id;
+                }
+            }
+            if (kept < size && size == ids.length) {
+                truncated = true;
+            }
+            size = kept;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    boolean isTruncated() {
+        lock.lock();
+        try {
+            return truncated || size == ids.length;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    Long oldest() {
+        lock.lock();
+        try {
+            return size == 0 ? null : ids[head];
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private void insert(long id) {
+        int position = lowerBound(id);
+        if (position < size && ids[physical(position)] == id) {
+            return;
+        }
+        if (size == ids.length) {
+            truncated = true;
+            if (position == 0) {
+                return;
+            }
+            head = physical(1);
+            size--;
+            position--;
+        }
+        for (int i = size; i > position; i--) {
+            ids[physical(i)] = ids[physical(i - 1)];
+        }
+        ids[physical(position)] = id;
+        size++;
+    }
+
+    private int lowerBound(long id) {
+        int low = 0;
+        int high = size;
+        while (low < high) {
+            int middle = (low + high) >>> 1;
+            if (ids[physical(middle)] < id) {
+                low = middle + 1;
+            } else {
+                high = middle;
+            }
+        }
+        return low;
+    }
+
+    private int physical(int index) {
+        return (head + index) % ids.length;
+    }
+}
@@ -0,0 +1,207 @@
+package com.demo.simplified_twitter.service;
+
+import com.demo.simplified_twitter.dto.TweetResponseDto;
+import com.demo.simplified_twitter.events.FollowChangedEvent;
+import com.demo.simplified_twitter.events.TweetBatchCreatedEvent;
+import com.demo.simplified_twitter.events.TweetCreatedEvent;
+import com.demo.simplified_twitter.repositories.FollowRepository;
+import com.demo.simplified_twitter.repositories.TweetRepository;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.Limit;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.TreeSet;
+import java.util.UUID;
+import java.util.stream.Collectors;
+
+@Service
+public class TimelineService {
+    private static final int MAX_PAGE_SIZE = 100;
+    private static final int MAX_PAGE_ATTEMPTS = 3;
+
+    private final TweetRepository tweetRepository;
+    private final FollowRepository followRepository;
+    private final TransactionTemplate transactionTemplate;
+    private final int capacity;
+    private final int maxFanOutFollowers;
+    private final Duration syncOverlap;
+    private final Cache<UUID, TimelineBuffer> buffers;
+    private final Cache<UUID, Boolean> pulledUserIds;
+
+    public TimelineService(TweetRepository tweetRepository,
+                           FollowRepository followRepository,
+                           PlatformTransactionManager transactionManager,
+                           MeterRegistry meterRegistry,
+                           @Value("${timeline.capacity}") int capacity,
+                           @Value("${timeline.sync-overlap}") Duration syncOverlap,
+                           @Value("${timeline.buffers.maximum-size}") long maximumBuffers,
+                           @Value("${timeline.buffers.expire-after-access}") Duration bufferExpireAfterAccess,
+                           @Value("${timeline.fan-out.max-followers}") int maxFanOutFollowers,
+                           @Value("${timeline.fan-out.recheck-interval}") Duration fanOutRecheckInterval) {
+        if (capacity <= 0) {
+            throw new IllegalArgumentException("timeline.capacity must be greater than zero");
+        }
+        this.tweetRepository = tweetRepository;
+        this.followRepository = followRepository;
+        // Read-write on purpose: read-only transactions are routed to a replica
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.capacity = capacity;
+        this.syncOverlap = syncOverlap;
+        this.maxFanOutFollowers = maxFanOutFollowers;
+        this.buffers = Caffeine.newBuilder()
+                .maximumSize(maximumBuffers)
+                .expireAfterAccess(bufferExpireAfterAccess)
+                .recordStats()
+                .build();
+        this.pulledUserIds = Caffeine.newBuilder()
+                .expireAfterWrite(fanOutRecheckInterval)
+                .build();
+        CaffeineCacheMetrics.monitor(meterRegistry, buffers, "timeline.buffers");
+    }
+
+    @TransactionalEventListener
+    public void onTweetCreated(TweetCreatedEvent event) {
+        fanOut(event.tweet().userId(), List.of(event.tweet().id()));
+    }
+
+    @TransactionalEventListener
+    public void onTweetBatchCreated(TweetBatchCreatedEvent event) {
+        fanOut(event.userId(), event.tweets().stream().map(TweetResponseDto::id).toList());
+    }
+
+    @TransactionalEventListener
+    public void onFollowChanged(FollowChangedEvent event) {
+        buffers.invalidate(event.followerId());
+    }
+
+    public List<TweetResponseDto> getHomeTimeline(UUID userId, Long beforeId, int limit) {
+        int pageSize = Math.max(1, Math.min(limit, MAX_PAGE_SIZE));
+        var requestedAt = Instant.now();
+        var buffer = bufferFor(userId);
+        // A page must hold at least what the timeline's entity tag counted, so every read catches up
+        if (buffer.syncedAt().isBefore(requestedAt) && !catchUp(userId, buffer)) {
+            buffers.asMap().remove(userId, buffer);
+            buffer = bufferFor(userId);
+        }
+        for (int attempt = 1; ; attempt++) {
+            var ids = pageIds(userId, buffer, beforeId, pageSize);
+            if (ids.isEmpty()) {
+                return List.of();
+            }
+            var views = tweetRepository.findViewsByIds(ids);
+            if (views.size() < ids.size() && attempt < MAX_PAGE_ATTEMPTS) {
+                // Tweets deleted since they were buffered, here or on another node: forget them and fill the page again
+                var found = views.stream().map(TweetResponseDto::id).collect(Collectors.toSet());
+                buffer.removeAll(ids.stream().filter(id -> !found.contains(id)).toList());
+                continue;
+            }
+            return views.stream()
+                    .sorted(Comparator.comparing(TweetResponseDto::id).reversed())
+                    .toList();
+        }
+    }
+
+    public Set<UUID> following(UUID userId) {
+        return bufferFor(userId).following();
+    }
+
+    private List<Long> pageIds(UUID userId, TimelineBuffer buffer, Long beforeId, int pageSize) {
+        var pageIds = new TreeSet<Long>(Comparator.reverseOrder());
+        var buffered = buffer.page(beforeId, pageSize);
+        pageIds.addAll(buffered);
+        if (buffered.size() < pageSize && buffer.isTruncated()) {
+            var oldest = buffer.oldest();
+            var olderThan = oldest == null ? beforeId : beforeId == null ? oldest : Math.min(beforeId, oldest);
+            pageIds.addAll(findIds(authorsOf(userId, buffer), olderThan, pageSize));
+        }
+        return pageIds.stream().limit(pageSize).toList();
+    }
+
+    private void fanOut(UUID authorId, List<Long> tweetIds) {
+        var authorBuffer = buffers.policy().getIfPresentQuietly(authorId);
+        if (authorBuffer != null) {
+            authorBuffer.pushAll(tweetIds);
+        }
+        if (buffers.estimatedSize() == 0 || pulledUserIds.getIfPresent(authorId) != null) {
+            return;
+        }
+        var followerIds = followRepository.findFollowerIds(authorId, Limit.of(maxFanOutFollowers + 1));
+        if (followerIds.size() > maxFanOutFollowers) {
+            pulledUserIds.put(authorId, Boolean.TRUE);
+            return;
+        }
+        for (UUID followerId : followerIds) {
+            var buffer = buffers.policy().getIfPresentQuietly(followerId);
+            if (buffer != null) {
+                buffer.pushAll(tweetIds);
+            }
+        }
+    }
+
+    private TimelineBuffer bufferFor(UUID userId) {
+        var buffer = buffers.getIfPresent(userId);
+        if (buffer != null) {
+            return buffer;
+        }
+        var created = new TimelineBuffer(capacity, Set.copyOf(followRepository.findFollowedIds(userId)));
+        created.lock();
+        try {
+            var existing = buffers.asMap().putIfAbsent(userId, created);
+            if (existing != null) {
+                return existing;
+            }
+            var startedAt = Instant.now();
+            created.pushAll(transactionTemplate.execute(status ->
+                    tweetRepository.findLatestIdsByUserIds(authorsOf(userId, created), Limit.of(capacity))));
+            created.synced(startedAt);
+            return created;
+        } catch (RuntimeException e) {
+            buffers.asMap().remove(userId, created);
+            throw e;
+        } finally {
+            created.unlock();
+        }
+    }
+
+    // Picks up tweets that were not fanned out here; returns false when too many arrived to keep the buffer gapless
+    private boolean catchUp(UUID userId, TimelineBuffer buffer) {
+        var startedAt = Instant.now();
+        // Overlap the previous sync to tolerate clock skew between nodes and inserts that committed late
+        var since = buffer.syncedAt().minus(syncOverlap);
+        var ids = transactionTemplate.execute(status ->
+                tweetRepository.findIdsByUserIdsCreatedAfter(authorsOf(userId, buffer), since, Limit.of(capacity)));
+        if (ids.size() >= capacity) {
+            return false;
+        }
+        buffer.pushAll(ids);
+        buffer.synced(startedAt);
+        return true;
+    }
+
+    private List<Long> findIds(List<UUID> userIds, Long beforeId, int limit) {
+        if (beforeId == null) {
+            return tweetRepository.findLatestIdsByUserIds(userIds, Limit.of(limit));
+        }
+        return tweetRepository.findIdsByUserIdsBefore(userIds, beforeId, Limit.of(limit));
+    }
+
+    private List<UUID> authorsOf(UUID userId, TimelineBuffer buffer) {
+        var authors = new HashSet<>(buffer.following());
+        authors.add(userId);
+        return new ArrayList<>(authors);
+    }
+}
@@ -0,0 +1,93 @@
+package com.demo.simplified_twitter.service;
+
+import com.demo.simplified_twitter.entities.RevokedToken;
+import com.demo.simplified_twitter.exceptions.InvalidRequestException;
+import com.demo.simplified_twitter.repositories.RevokedTokenRepository;
+import com.demo.simplified_twitter.security.TokenDenylist;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.SmartLifecycle;
+import org.springframework.security.oauth2.jwt.Jwt;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+@Service
+public class TokenRevocationService implements SmartLifecycle {
+    private static final Logger log = LoggerFactory.getLogger(TokenRevocationService.class);
+
+    private final RevokedTokenRepository revokedTokenRepository;
+    private final TokenDenylist denylist;
+    private final TransactionTemplate transactionTemplate;
+    private final Duration syncInterval;
+    private volatile Instant lastSync = Instant.EPOCH;
+    private ScheduledExecutorService scheduler;
+
+    public TokenRevocationService(RevokedTokenRepository revokedTokenRepository,
+                                  TokenDenylist denylist,
+                                  PlatformTransactionManager transactionManager,
+                                  @Value("${jwt.revocation.sync-interval}") Duration syncInterval) {
+        this.revokedTokenRepository = revokedTokenRepository;
+        this.denylist = denylist;
+        // Read-write on purpose: read-only transactions are routed to a replica
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.syncInterval = syncInterval;
+    }
+
+    @Transactional
+    public void revoke(Jwt jwt) {
+        if (jwt.getId() == null || jwt.getExpiresAt() == null) {
+            throw new InvalidRequestException("Token cannot be revoked");
+        }
+        revokedTokenRepository.save(new RevokedToken(jwt.getId(), jwt.getExpiresAt(), Instant.now()));
+        denylist.add(jwt.getId(), jwt.getExpiresAt());
+    }
+
+    public void sync() {
+        var startedAt = Instant.now();
+        // Look back one extra interval so that revocations committed late or stamped by a skewed clock are not missed
+        var since = lastSync.equals(Instant.EPOCH) ? Instant.EPOCH : lastSync.minus(syncInterval);
+        var revokedTokens = transactionTemplate.execute(status ->
+                revokedTokenRepository.findByRevokedAtAfterAndExpiresAtAfter(since, startedAt));
+        revokedTokens.forEach(revokedToken -> denylist.add(revokedToken.getTokenId(), revokedToken.getExpiresAt()));
+        lastSync = startedAt;
+        if (denylist.prune(startedAt) > 0) {
+            revokedTokenRepository.deleteExpired(startedAt);
+        }
+    }
+
+    @Override
+    public void start() {
+        sync();
+        log.info("Loaded {} revoked tokens", denylist.size());
+        scheduler = Executors.newSingleThreadScheduledExecutor(Thread.ofPlatform().name("token-revocation-sync").daemon().factory());
+        scheduler.scheduleWithFixedDelay(() -> {
+            try {
+                sync();
+            } catch (RuntimeException e) {
+                log.warn("Failed to sync revoked tokens", e);
+            }
+        }, syncInterval.toMillis(), syncInterval.toMillis(), TimeUnit.MILLISECONDS);
+    }
+
+    @Override
+    public void stop() {
+        if (scheduler != null) {
+            scheduler.shutdownNow();
+            scheduler = null;
+        }
+    }
+
+    @Override
+    public boolean isRunning() {
+        return scheduler != null;
+    }
+}
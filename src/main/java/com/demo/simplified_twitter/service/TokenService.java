@@ -3,6 +3,7 @@ package com.demo.simplified_twitter.service;
 import com.demo.simplified_twitter.dto.JwtDto;
 import com.demo.simplified_twitter.dto.RoleDto;
 import com.demo.simplified_twitter.dto.UserDto;
+import io.micrometer.core.annotation.Timed;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.security.oauth2.jwt.JwtClaimsSet;
 import org.springframework.security.oauth2.jwt.JwtEncoder;
@@ -10,6 +11,7 @@ import org.springframework.security.oauth2.jwt.JwtEncoderParameters;
 import org.springframework.stereotype.Service;
 
 import java.time.Instant;
+import java.util.UUID;
 import java.util.stream.Collectors;
 
 @Service
@@ -27,9 +29,11 @@ public class TokenService {
         this.expiresIn = expiresIn;
     }
 
+    @Timed(value = "auth.token.issue", histogram = true)
     public JwtDto getJwt(UserDto user) {
         var scopes = user.roles().stream().map(RoleDto::name).collect(Collectors.joining(" "));
         var claims = JwtClaimsSet.builder()
+                .id(UUID.randomUUID().toString())
                 .issuer(this.applicationName)
                 .subject(user.id().toString())
                 .expiresAt(Instant.now().plusSeconds(this.expiresIn))
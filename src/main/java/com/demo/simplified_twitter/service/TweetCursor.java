@@ -0,0 +1,33 @@
+package com.demo.simplified_twitter.service;
+
+import com.demo.simplified_twitter.dto.TweetResponseDto;
+import com.demo.simplified_twitter.exceptions.InvalidRequestException;
+
+import java.nio.charset.StandardCharsets;
+import java.time.DateTimeException;
+import java.time.Instant;
+import java.util.Base64;
+
+record TweetCursor(Instant createdAt, Long id) {
+
+    static TweetCursor of(TweetResponseDto tweet) {
+        return new TweetCursor(tweet.createdAt(), tweet.id());
+    }
+
+    static TweetCursor decode(String cursor) {
+        try {
+            var parts = new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.UTF_8).split(":");
+            if (parts.length != 3) {
+                throw new IllegalArgumentException();
+            }
+            return new TweetCursor(Instant.ofEpochSecond(Long.parseLong(parts[0]), Long.parseLong(parts[1])), Long.parseLong(parts[2]));
+        } catch (IllegalArgumentException | DateTimeException | ArithmeticException e) {
+            throw new InvalidRequestException("Invalid cursor: " + cursor);
+        }
+    }
+
+    String encode() {
+        var value = createdAt.getEpochSecond() + ":" + createdAt.getNano() + ":" + id;
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(value.getBytes(StandardCharsets.UTF_8));
+    }
+}
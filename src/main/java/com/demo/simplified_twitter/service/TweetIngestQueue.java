@@ -0,0 +1,188 @@
+package com.demo.simplified_twitter.service;
+
+import com.demo.simplified_twitter.events.TweetBatchCreatedEvent;
+import com.demo.simplified_twitter.exceptions.ServiceUnavailableException;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.context.SmartLifecycle;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.sql.Timestamp;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.TimeUnit;
+
+@Component
+public class TweetIngestQueue implements SmartLifecycle {
+    private static final Logger log = LoggerFactory.getLogger(TweetIngestQueue.class);
+    private static final String INSERT_TWEET = "insert into tb_tweets (tweet_id, user_id, content, created_at) values (?, ?, ?, ?)";
+
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate transactionTemplate;
+    private final ApplicationEventPublisher eventPublisher;
+    private final boolean enabled;
+    private final int flushSize;
+    private final Duration flushInterval;
+    private final Duration shutdownTimeout;
+    private final boolean virtualThreads;
+    private final BlockingQueue<QueuedTweet> queue;
+    private final Counter rejectedCounter;
+    private final Counter failedCounter;
+    private final Timer flushTimer;
+    private final DistributionSummary flushSizeSummary;
+    private volatile boolean running;
+    private Thread writer;
+
+    public TweetIngestQueue(JdbcTemplate jdbcTemplate,
+                            PlatformTransactionManager transactionManager,
+                            ApplicationEventPublisher eventPublisher,
+                            MeterRegistry meterRegistry,
+                            @Value("${tweets.ingest.async.enabled}") boolean enabled,
+                            @Value("${tweets.ingest.queue-capacity}") int queueCapacity,
+                            @Value("${tweets.ingest.flush-size}") int flushSize,
+                            @Value("${tweets.ingest.flush-interval}") Duration flushInterval,
+                            @Value("${tweets.ingest.shutdown-timeout}") Duration shutdownTimeout,
+                            @Value("${spring.threads.virtual.enabled}") boolean virtualThreads) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.eventPublisher = eventPublisher;
+        this.enabled = enabled;
+        this.flushSize = flushSize;
+        this.flushInterval = flushInterval;
+        this.shutdownTimeout = shutdownTimeout;
+        this.virtualThreads = virtualThreads;
+        this.queue = new ArrayBlockingQueue<>(queueCapacity);
+        this.rejectedCounter = meterRegistry.counter("tweets.ingest.rejected");
+        this.failedCounter = meterRegistry.counter("tweets.ingest.failed");
+        this.flushTimer = Timer.builder("tweets.ingest.flush.latency").publishPercentileHistogram().register(meterRegistry);
+        this.flushSizeSummary = meterRegistry.summary("tweets.ingest.flush.size");
+        Gauge.builder("tweets.ingest.queue.depth", queue, BlockingQueue::size).register(meterRegistry);
+    }
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    public void enqueue(QueuedTweet tweet) {
+        if (!running || !queue.offer(tweet)) {
+            rejectedCounter.increment();
+            throw new ServiceUnavailableException("Tweet ingest queue is full, try again later");
+        }
+    }
+
+    @Override
+    public void start() {
+        if (!enabled) {
+            return;
+        }
+        running = true;
+        var threadBuilder = virtualThreads ? Thread.ofVirtual() : Thread.ofPlatform();
+        writer = threadBuilder.name("tweet-ingest-writer").start(this::drain);
+    }
+
+    @Override
+    public void stop() {
+        running = false;
+        if (writer == null) {
+            return;
+        }
+        try {
+            writer.join(shutdownTimeout.toMillis());
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        if (!queue.isEmpty()) {
+            log.error("Tweet ingest writer stopped with {} queued tweets not persisted", queue.size());
+        }
+    }
+
+    @Override
+    public boolean isRunning() {
+        return running;
+    }
+
+    @Override
+    public int getPhase() {
+        // Stop after the web server so that in-flight requests can still enqueue before the final flush
+        return Integer.MAX_VALUE - 4096;
+    }
+
+    private void drain() {
+        List<QueuedTweet> batch = new ArrayList<>(flushSize);
+        while (running || !queue.isEmpty()) {
+            try {
+                var first = queue.poll(100, TimeUnit.MILLISECONDS);
+                if (first == null) {
+                    continue;
+                }
+                batch.add(first);
+                long deadline = System.nanoTime() + flushInterval.toNanos();
+                while (batch.size() < flushSize) {
+                    queue.drainTo(batch, flushSize - batch.size());
+                    long remaining = deadline - System.nanoTime();
+                    if (batch.size() >= flushSize || remaining <= 0) {
+                        break;
+                    }
+                    var next = queue.poll(remaining, TimeUnit.NANOSECONDS);
+                    if (next == null) {
+                        break;
+                    }
+                    batch.add(next);
+                }
+                flush(batch);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                running = false;
+            } finally {
+                batch.clear();
+            }
+        }
+    }
+
+    private void flush(List<QueuedTweet> batch) {
+        flushSizeSummary.record(batch.size());
+        try {
+            flushTimer.record(() -> write(batch));
+        } catch (RuntimeException e) {
+            log.warn("Group commit of {} tweets failed, retrying one by one", batch.size(), e);
+            for (QueuedTweet tweet : batch) {
+                try {
+                    write(List.of(tweet));
+                } catch (RuntimeException itemException) {
+                    failedCounter.increment();
+                    log.error("Could not persist queued tweet {} of user {}", tweet.id(), tweet.userId(), itemException);
+                }
+            }
+        }
+    }
+
+    private void write(List<QueuedTweet> tweets) {
+        transactionTemplate.executeWithoutResult(status -> {
+            jdbcTemplate.batchUpdate(INSERT_TWEET, tweets, tweets.size(), (statement, tweet) -> {
+                statement.setLong(1, tweet.id());
+                statement.setObject(2, tweet.userId());
+                statement.setString(3, tweet.content());
+                statement.setTimestamp(4, Timestamp.from(tweet.createdAt()));
+            });
+            var tweetsByUser = new LinkedHashMap<UUID, List<QueuedTweet>>();
+            tweets.forEach(tweet -> tweetsByUser.computeIfAbsent(tweet.userId(), userId -> new ArrayList<>()).add(tweet));
+            tweetsByUser.forEach((userId, userTweets) -> eventPublisher.publishEvent(
+                    new TweetBatchCreatedEvent(userId, userTweets.stream().map(QueuedTweet::toView).toList())));
+        });
+    }
+}
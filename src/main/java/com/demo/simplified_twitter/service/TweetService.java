@@ -1,39 +1,197 @@
 package com.demo.simplified_twitter.service;
 
+import com.demo.simplified_twitter.dto.AcceptedTweetDto;
+import com.demo.simplified_twitter.dto.BatchTweetItemResultDto;
+import com.demo.simplified_twitter.dto.BatchTweetResponseDto;
 import com.demo.simplified_twitter.dto.CreateTweetRequestDto;
+import com.demo.simplified_twitter.dto.CursorPageDto;
+import com.demo.simplified_twitter.dto.DeleteTweetsResponseDto;
+import com.demo.simplified_twitter.dto.PrincipalDto;
+import com.demo.simplified_twitter.dto.TweetResponseDto;
 import com.demo.simplified_twitter.entities.Tweet;
+import com.demo.simplified_twitter.events.TweetBatchCreatedEvent;
+import com.demo.simplified_twitter.events.TweetCreatedEvent;
+import com.demo.simplified_twitter.exceptions.InvalidRequestException;
 import com.demo.simplified_twitter.exceptions.ResourceNotFoundException;
+import com.demo.simplified_twitter.repositories.TweetIdGenerator;
 import com.demo.simplified_twitter.repositories.TweetRepository;
 import com.demo.simplified_twitter.repositories.UserRepository;
+import io.micrometer.core.annotation.Timed;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.data.domain.Limit;
 import org.springframework.security.oauth2.server.resource.authentication.JwtAuthenticationToken;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.LinkedHashSet;
+import java.util.List;
 import java.util.UUID;
 
 @Service
 public class TweetService {
+    private static final int MAX_PAGE_SIZE = 100;
+    private static final int MAX_CONTENT_LENGTH = 255;
+
     private final TweetRepository tweetRepository;
     private final UserRepository userRepository;
+    private final PrincipalService principalService;
+    private final ApplicationEventPublisher eventPublisher;
+    private final TweetIngestQueue tweetIngestQueue;
+    private final TweetIdGenerator tweetIdGenerator;
+    private final int maxBatchSize;
 
-    public TweetService(TweetRepository tweetRepository, UserRepository userRepository) {
+    public TweetService(TweetRepository tweetRepository,
+                        UserRepository userRepository,
+                        PrincipalService principalService,
+                        ApplicationEventPublisher eventPublisher,
+                        TweetIngestQueue tweetIngestQueue,
+                        TweetIdGenerator tweetIdGenerator,
+                        @Value("${tweets.batch.max-size}") int maxBatchSize) {
         this.tweetRepository = tweetRepository;
         this.userRepository = userRepository;
+        this.principalService = principalService;
+        this.eventPublisher = eventPublisher;
+        this.tweetIngestQueue = tweetIngestQueue;
+        this.tweetIdGenerator = tweetIdGenerator;
+        this.maxBatchSize = maxBatchSize;
+    }
+
+    public boolean isAsyncIngestEnabled() {
+        return tweetIngestQueue.isEnabled();
     }
 
+    @Timed(value = "tweets.create", histogram = true)
     @Transactional
     public void createTweet(CreateTweetRequestDto createTweetRequest, JwtAuthenticationToken jwtAuthenticationToken) {
-        var user = userRepository
-                .findById(UUID.fromString(jwtAuthenticationToken.getName()))
-                .orElseThrow(() -> new ResourceNotFoundException("User with id: " + jwtAuthenticationToken.getName() + " not found"));
-        tweetRepository.save(new Tweet(null, user, createTweetRequest.content()));
+        var error = validateContent(createTweetRequest.content());
+        if (error != null) {
+            throw new InvalidRequestException(error);
+        }
+        var user = principalService.resolve(jwtAuthenticationToken);
+        // Flushed so that the view published to the stream carries the creation timestamp
+        var tweet = tweetRepository.saveAndFlush(new Tweet(null, userRepository.getReferenceById(user.id()), createTweetRequest.content()));
+        eventPublisher.publishEvent(new TweetCreatedEvent(toView(tweet, user)));
     }
 
+    @Transactional
+    public AcceptedTweetDto enqueueTweet(CreateTweetRequestDto createTweetRequest, JwtAuthenticationToken jwtAuthenticationToken) {
+        var error = validateContent(createTweetRequest.content());
+        if (error != null) {
+            throw new InvalidRequestException(error);
+        }
+        var user = principalService.resolve(jwtAuthenticationToken);
+        var tweet = new QueuedTweet(tweetIdGenerator.nextId(), user.id(), user.username(), createTweetRequest.content(), Instant.now());
+        tweetIngestQueue.enqueue(tweet);
+        return new AcceptedTweetDto(tweet.id(), tweet.createdAt());
+    }
+
+    @Transactional
+    public BatchTweetResponseDto createTweets(List<CreateTweetRequestDto> createTweetRequests, JwtAuthenticationToken jwtAuthenticationToken) {
+        if (createTweetRequests == null || createTweetRequests.isEmpty()) {
+            throw new InvalidRequestException("Batch must contain at least one tweet");
+        }
+        if (createTweetRequests.size() > maxBatchSize) {
+            throw new InvalidRequestException("Batch must contain at most " + maxBatchSize + " tweets");
+        }
+        var user = principalService.resolve(jwtAuthenticationToken);
+        var userReference = userRepository.getReferenceById(user.id());
+        var results = new BatchTweetItemResultDto[createTweetRequests.size()];
+        List<Integer> acceptedIndexes = new ArrayList<>();
+        List<Tweet> tweets = new ArrayList<>();
+        for (int i = 0; i < createTweetRequests.size(); i++) {
+            var content = createTweetRequests.get(i) == null ? null : createTweetRequests.get(i).content();
+            var error = validateContent(content);
+            if (error != null) {
+                results[i] = new BatchTweetItemResultDto(i, null, "REJECTED", error);
+            } else {
+                acceptedIndexes.add(i);
+                tweets.add(new Tweet(null, userReference, content));
+            }
+        }
+
+        var saved = tweets.isEmpty() ? List.<Tweet>of() : tweetRepository.saveAllAndFlush(tweets);
+        List<TweetResponseDto> views = new ArrayList<>(saved.size());
+        for (int i = 0; i < saved.size(); i++) {
+            var tweet = saved.get(i);
+            int index = acceptedIndexes.get(i);
+            results[index] = new BatchTweetItemResultDto(index, tweet.getId(), "CREATED", null);
+            views.add(toView(tweet, user));
+        }
+        if (!views.isEmpty()) {
+            eventPublisher.publishEvent(new TweetBatchCreatedEvent(user.id(), views));
+        }
+        return new BatchTweetResponseDto(saved.size(), createTweetRequests.size() - saved.size(), List.of(results));
+    }
+
+    @Timed(value = "tweets.delete", histogram = true)
+    @Transactional
     public void deleteTweet(Long id, JwtAuthenticationToken jwtAuthenticationToken) {
-        var user = userRepository
-                .findById(UUID.fromString(jwtAuthenticationToken.getName()))
-                .orElseThrow(() -> new ResourceNotFoundException("User with id: " + jwtAuthenticationToken.getName() + " not found"));
-        var userTweet = tweetRepository.findByIdAndUser(id, user).orElseThrow(() -> new ResourceNotFoundException("Tweet with id: " + id + " not found for user with id: " + user.getId()));
-        tweetRepository.delete(userTweet);
+        var userId = UUID.fromString(jwtAuthenticationToken.getName());
+        if (tweetRepository.deleteByIdAndUserId(id, userId) == 0) {
+            throw new ResourceNotFoundException("Tweet with id: " + id + " not found for user with id: " + userId);
+        }
+    }
+
+    @Transactional
+    public DeleteTweetsResponseDto deleteTweets(List<Long> ids, JwtAuthenticationToken jwtAuthenticationToken) {
+        if (ids == null || ids.isEmpty()) {
+            throw new InvalidRequestException("At least one tweet id must be informed");
+        }
+        var distinctIds = new LinkedHashSet<>(ids);
+        if (distinctIds.size() > maxBatchSize) {
+            throw new InvalidRequestException("Delete must target at most " + maxBatchSize + " tweets");
+        }
+        var userId = UUID.fromString(jwtAuthenticationToken.getName());
+        int deleted = tweetRepository.deleteByIdsAndUserId(distinctIds, userId);
+        return new DeleteTweetsResponseDto(distinctIds.size(), deleted);
+    }
+
+    @Transactional(readOnly = true)
+    public CursorPageDto<TweetResponseDto> findLatestTweets(String cursor, int limit) {
+        int pageSize = pageSize(limit);
+        if (cursor == null) {
+            return toPage(tweetRepository.findLatestViews(Limit.of(pageSize + 1)), pageSize);
+        }
+        var after = TweetCursor.decode(cursor);
+        return toPage(tweetRepository.findLatestViewsAfter(after.createdAt(), after.id(), Limit.of(pageSize + 1)), pageSize);
+    }
+
+    @Transactional(readOnly = true)
+    public CursorPageDto<TweetResponseDto> findUserTweets(UUID userId, String cursor, int limit) {
+        int pageSize = pageSize(limit);
+        if (cursor == null) {
+            return toPage(tweetRepository.findViewsByUserId(userId, Limit.of(pageSize + 1)), pageSize);
+        }
+        var after = TweetCursor.decode(cursor);
+        return toPage(tweetRepository.findViewsByUserIdAfter(userId, after.createdAt(), after.id(), Limit.of(pageSize + 1)), pageSize);
+    }
+
+    private String validateContent(String content) {
+        if (content == null || content.isBlank()) {
+            return "Content must not be blank";
+        }
+        if (content.length() > MAX_CONTENT_LENGTH) {
+            return "Content must have at most " + MAX_CONTENT_LENGTH + " characters";
+        }
+        return null;
+    }
+
+    private TweetResponseDto toView(Tweet tweet, PrincipalDto user) {
+        return new TweetResponseDto(tweet.getId(), user.id(), user.username(), tweet.getContent(), tweet.getCreatedAt());
+    }
+
+    private int pageSize(int limit) {
+        return Math.max(1, Math.min(limit, MAX_PAGE_SIZE));
+    }
+
+    private CursorPageDto<TweetResponseDto> toPage(List<TweetResponseDto> tweets, int pageSize) {
+        if (tweets.size() <= pageSize) {
+            return new CursorPageDto<>(tweets, null);
+        }
+        var page = tweets.subList(0, pageSize);
+        return new CursorPageDto<>(List.copyOf(page), TweetCursor.of(page.get(pageSize - 1)).encode());
     }
 }
@@ -0,0 +1,353 @@
+package com.demo.simplified_twitter.service;
+
+import com.demo.simplified_twitter.dto.TweetResponseDto;
+import com.demo.simplified_twitter.events.FollowChangedEvent;
+import com.demo.simplified_twitter.events.TweetBatchCreatedEvent;
+import com.demo.simplified_twitter.events.TweetCreatedEvent;
+import com.demo.simplified_twitter.exceptions.ServiceUnavailableException;
+import com.demo.simplified_twitter.repositories.FollowRepository;
+import com.demo.simplified_twitter.security.TokenDenylist;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.SmartLifecycle;
+import org.springframework.http.MediaType;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.io.IOException;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+
+@Component
+public class TweetStreamHub implements SmartLifecycle {
+    private static final Logger log = LoggerFactory.getLogger(TweetStreamHub.class);
+
+    private final FollowRepository followRepository;
+    private final ObjectMapper objectMapper;
+    private final TokenDenylist tokenDenylist;
+    private final ExecutorService senders;
+    private final int bufferSize;
+    private final int maxConnections;
+    private final Duration heartbeatInterval;
+    private final Duration timeout;
+    private final Map<UUID, Set<Connection>> connectionsByUser = new ConcurrentHashMap<>();
+    private final Map<UUID, Set<Connection>> connectionsByAuthor = new ConcurrentHashMap<>();
+    private final AtomicInteger connections = new AtomicInteger();
+    private final Counter tweetEvents;
+    private final Counter resyncEvents;
+    private final Counter heartbeatEvents;
+    private final Counter droppedCounter;
+    private final Counter rejectedCounter;
+    private volatile boolean running;
+    private ScheduledExecutorService heartbeats;
+
+    @Autowired
+    public TweetStreamHub(FollowRepository followRepository,
+                          ObjectMapper objectMapper,
+                          TokenDenylist tokenDenylist,
+                          MeterRegistry meterRegistry,
+                          @Value("${tweets.stream.buffer-size}") int bufferSize,
+                          @Value("${tweets.stream.max-connections}") int maxConnections,
+                          @Value("${tweets.stream.heartbeat-interval}") Duration heartbeatInterval,
+                          @Value("${tweets.stream.timeout}") Duration timeout) {
+        this(followRepository, objectMapper, tokenDenylist, meterRegistry,
+                Executors.newThreadPerTaskExecutor(Thread.ofVirtual().name("tweet-stream-sender-", 0).factory()),
+                bufferSize, maxConnections, heartbeatInterval, timeout);
+    }
+
+    TweetStreamHub(FollowRepository followRepository, ObjectMapper objectMapper, TokenDenylist tokenDenylist, MeterRegistry meterRegistry,
+                   ExecutorService senders, int bufferSize, int maxConnections, Duration heartbeatInterval, Duration timeout) {
+        if (bufferSize <= 0) {
+            throw new IllegalArgumentException("tweets.stream.buffer-size must be greater than zero");
+        }
+        this.followRepository = followRepository;
+        this.objectMapper = objectMapper;
+        this.tokenDenylist = tokenDenylist;
+        this.senders = senders;
+        this.bufferSize = bufferSize;
+        this.maxConnections = maxConnections;
+        this.heartbeatInterval = heartbeatInterval;
+        this.timeout = timeout;
+        this.tweetEvents = meterRegistry.counter("tweets.stream.events", "type", "tweet");
+        this.resyncEvents = meterRegistry.counter("tweets.stream.events", "type", "resync");
+        this.heartbeatEvents = meterRegistry.counter("tweets.stream.events", "type", "heartbeat");
+        this.droppedCounter = meterRegistry.counter("tweets.stream.dropped");
+        this.rejectedCounter = meterRegistry.counter("tweets.stream.rejected");
+        meterRegistry.gauge("tweets.stream.connections", connections);
+    }
+
+    public SseEmitter subscribe(UUID userId, String tokenId, Instant tokenExpiresAt, boolean resumed) {
+        var untilExpiry = Duration.between(Instant.now(), tokenExpiresAt);
+        var emitter = new SseEmitter(Math.max(1, Math.min(timeout.toMillis(), untilExpiry.toMillis())));
+        var connection = open(userId, tokenId, new EmitterSink(emitter), resumed);
+        emitter.onCompletion(() -> release(connection));
+        emitter.onError(error -> release(connection));
+        emitter.onTimeout(emitter::complete);
+        return emitter;
+    }
+
+    @TransactionalEventListener
+    public void onTweetCreated(TweetCreatedEvent event) {
+        publish(event.tweet());
+    }
+
+    @TransactionalEventListener
+    public void onTweetBatchCreated(TweetBatchCreatedEvent event) {
+        event.tweets().forEach(this::publish);
+    }
+
+    @TransactionalEventListener
+    public void onFollowChanged(FollowChangedEvent event) {
+        var followerConnections = connectionsByUser.get(event.followerId());
+        if (followerConnections == null) {
+            return;
+        }
+        for (Connection connection : followerConnections) {
+            if (event.following()) {
+                index(connection, event.followedId());
+            } else if (!event.followedId().equals(connection.userId)) {
+                unindex(connection, event.followedId());
+            }
+        }
+    }
+
+    @Override
+    public void start() {
+        heartbeats = Executors.newSingleThreadScheduledExecutor(
+                Thread.ofPlatform().name("tweet-stream-heartbeat").daemon().factory());
+        long intervalMillis = heartbeatInterval.toMillis();
+        heartbeats.scheduleWithFixedDelay(this::heartbeat, intervalMillis, intervalMillis, TimeUnit.MILLISECONDS);
+        running = true;
+    }
+
+    @Override
+    public void stop() {
+        running = false;
+        if (heartbeats != null) {
+            heartbeats.shutdownNow();
+        }
+        connectionsByUser.values().forEach(userConnections -> userConnections.forEach(this::close));
+        senders.shutdown();
+    }
+
+    @Override
+    public boolean isRunning() {
+        return running;
+    }
+
+    @Override
+    public int getPhase() {
+        // Stop before the web server so that graceful shutdown does not wait for the open streams
+        return SmartLifecycle.DEFAULT_PHASE;
+    }
+
+    Connection open(UUID userId, String tokenId, Sink sink, boolean resumed) {
+        if (!running) {
+            throw new ServiceUnavailableException("Tweet stream is shutting down, try again later");
+        }
+        if (connections.incrementAndGet() > maxConnections) {
+            connections.decrementAndGet();
+            rejectedCounter.increment();
+            throw new ServiceUnavailableException("Too many open tweet streams, try again later");
+        }
+        var connection = new Connection(userId, tokenId, sink, bufferSize);
+        connectionsByUser.computeIfAbsent(userId, id -> ConcurrentHashMap.newKeySet()).add(connection);
+        try {
+            index(connection, userId);
+            followRepository.findFollowedIds(userId).forEach(followedId -> index(connection, followedId));
+        } catch (RuntimeException e) {
+            release(connection);
+            throw e;
+        }
+        if (resumed) {
+            connection.resync.set("reconnected");
+        }
+        // Sends a comment right away so that the response headers reach the client
+        connection.heartbeat.set(true);
+        schedule(connection);
+        return connection;
+    }
+
+    void publish(TweetResponseDto tweet) {
+        var authorConnections = connectionsByAuthor.get(tweet.userId());
+        if (authorConnections == null) {
+            return;
+        }
+        String json;
+        try {
+            json = objectMapper.writeValueAsString(tweet);
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException(e);
+        }
+        var streamed = new StreamedTweet(tweet.id(), json);
+        for (Connection connection : authorConnections) {
+            if (!connection.queue.offer(streamed)) {
+                int dropped = connection.queue.size() + 1;
+                connection.queue.clear();
+                droppedCounter.increment(dropped);
+                connection.resync.set("overflow");
+            }
+            schedule(connection);
+        }
+    }
+
+    void heartbeat() {
+        for (Set<Connection> userConnections : connectionsByUser.values()) {
+            for (Connection connection : userConnections) {
+                if (connection.tokenId != null && tokenDenylist.isRevoked(connection.tokenId)) {
+                    close(connection);
+                    continue;
+                }
+                connection.heartbeat.set(true);
+                schedule(connection);
+            }
+        }
+    }
+
+    private void schedule(Connection connection) {
+        if (connection.closed.get() || !connection.scheduled.compareAndSet(false, true)) {
+            return;
+        }
+        try {
+            senders.execute(() -> drain(connection));
+        } catch (RuntimeException e) {
+            connection.scheduled.set(false);
+            close(connection);
+        }
+    }
+
+    // Sends at most one buffer's worth per turn so that a busy connection does not hold a sender thread
+    private void drain(Connection connection) {
+        try {
+            var reason = connection.resync.getAndSet(null);
+            if (reason != null) {
+                connection.sink.send(SseEmitter.event().name("resync").data(reason));
+                resyncEvents.increment();
+            }
+            StreamedTweet tweet;
+            for (int sent = 0; sent < bufferSize && (tweet = connection.queue.poll()) != null; sent++) {
+                connection.sink.send(SseEmitter.event().id(tweet.id().toString()).name("tweet").data(tweet.json(), MediaType.APPLICATION_JSON));
+                tweetEvents.increment();
+            }
+            if (connection.heartbeat.getAndSet(false)) {
+                connection.sink.send(SseEmitter.event().comment("heartbeat"));
+                heartbeatEvents.increment();
+            }
+        } catch (IOException | RuntimeException e) {
+            log.debug("Closing tweet stream of user {}", connection.userId, e);
+            close(connection);
+            return;
+        } finally {
+            connection.scheduled.set(false);
+        }
+        if (connection.hasPending()) {
+            schedule(connection);
+        }
+    }
+
+    private void close(Connection connection) {
+        if (release(connection)) {
+            connection.sink.complete();
+        }
+    }
+
+    private boolean release(Connection connection) {
+        if (!connection.closed.compareAndSet(false, true)) {
+            return false;
+        }
+        connections.decrementAndGet();
+        remove(connectionsByUser, connection.userId, connection);
+        connection.authors.forEach(authorId -> remove(connectionsByAuthor, authorId, connection));
+        connection.queue.clear();
+        return true;
+    }
+
+    private void index(Connection connection, UUID authorId) {
+        connection.authors.add(authorId);
+        connectionsByAuthor.computeIfAbsent(authorId, id -> ConcurrentHashMap.newKeySet()).add(connection);
+        if (connection.closed.get()) {
+            remove(connectionsByAuthor, authorId, connection);
+        }
+    }
+
+    private void unindex(Connection connection, UUID authorId) {
+        connection.authors.remove(authorId);
+        remove(connectionsByAuthor, authorId, connection);
+    }
+
+    private static void remove(Map<UUID, Set<Connection>> index, UUID key, Connection connection) {
+        index.computeIfPresent(key, (id, indexed) -> {
+            indexed.remove(connection);
+            return indexed.isEmpty() ? null : indexed;
+        });
+    }
+
+    interface Sink {
+        void send(SseEmitter.SseEventBuilder event) throws IOException;
+
+        void complete();
+    }
+
+    record StreamedTweet(Long id, String json) {
+    }
+
+    static final class Connection {
+        private final UUID userId;
+        private final String tokenId;
+        private final Sink sink;
+        // Linked rather than array backed so that idle connections do not preallocate their buffer
+        private final BlockingQueue<StreamedTweet> queue;
+        private final Set<UUID> authors = ConcurrentHashMap.newKeySet();
+        private final AtomicReference<String> resync = new AtomicReference<>();
+        private final AtomicBoolean heartbeat = new AtomicBoolean();
+        private final AtomicBoolean scheduled = new AtomicBoolean();
+        private final AtomicBoolean closed = new AtomicBoolean();
+
+        Connection(UUID userId, String tokenId, Sink sink, int bufferSize) {
+            this.userId = userId;
+            this.tokenId = tokenId;
+            this.sink = sink;
+            this.queue = new LinkedBlockingQueue<>(bufferSize);
+        }
+
+        boolean isClosed() {
+            return closed.get();
+        }
+
+        private boolean hasPending() {
+            return !queue.isEmpty() || resync.get() != null || heartbeat.get();
+        }
+    }
+
+    private record EmitterSink(SseEmitter emitter) implements Sink {
+        @Override
+        public void send(SseEmitter.SseEventBuilder event) throws IOException {
+            emitter.send(event);
+        }
+
+        @Override
+        public void complete() {
+            emitter.complete();
+        }
+    }
+}
@@ -1,78 +1,202 @@
 package com.demo.simplified_twitter.service;
 
+import com.demo.simplified_twitter.datasource.ReadYourWrites;
 import com.demo.simplified_twitter.dto.CreateUserRequestDto;
+import com.demo.simplified_twitter.dto.CursorPageDto;
 import com.demo.simplified_twitter.dto.RoleDto;
 import com.demo.simplified_twitter.dto.UserDto;
 import com.demo.simplified_twitter.dto.UserResponseDto;
 import com.demo.simplified_twitter.entities.Role;
 import com.demo.simplified_twitter.entities.User;
 import com.demo.simplified_twitter.exceptions.BadCredentialsException;
+import com.demo.simplified_twitter.exceptions.InvalidRequestException;
 import com.demo.simplified_twitter.exceptions.ResourceAlreadyExistsException;
 import com.demo.simplified_twitter.exceptions.ResourceNotFoundException;
-import com.demo.simplified_twitter.repositories.RoleRepository;
 import com.demo.simplified_twitter.repositories.UserRepository;
+import com.demo.simplified_twitter.repositories.projections.UserCredentialsRow;
+import com.demo.simplified_twitter.repositories.projections.UserRoleRow;
+import io.micrometer.core.annotation.Timed;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.data.domain.Limit;
 import org.springframework.security.crypto.password.PasswordEncoder;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Base64;
+import java.util.HashSet;
+import java.util.Iterator;
 import java.util.List;
+import java.util.Objects;
 import java.util.Set;
+import java.util.UUID;
+import java.util.function.Consumer;
 import java.util.stream.Collectors;
 
 @Service
 public class UserService {
     private static final Logger log = LoggerFactory.getLogger(UserService.class);
+    private static final int MAX_PAGE_SIZE = 500;
 
     private final UserRepository userRepository;
-    private final RoleRepository roleRepository;
+    private final RoleRegistry roleRegistry;
+    private final UsernameFilter usernameFilter;
+    private final ReadYourWrites readYourWrites;
     private final PasswordEncoder passwordEncoder;
+    private final boolean roleIdsOnly;
 
-    public UserService(UserRepository userRepository, RoleRepository roleRepository, PasswordEncoder passwordEncoder) {
+    public UserService(UserRepository userRepository,
+                       RoleRegistry roleRegistry,
+                       UsernameFilter usernameFilter,
+                       ReadYourWrites readYourWrites,
+                       PasswordEncoder passwordEncoder,
+                       @Value("${roles.membership.id-only-query}") boolean roleIdsOnly) {
         this.userRepository = userRepository;
-        this.roleRepository = roleRepository;
+        this.roleRegistry = roleRegistry;
+        this.usernameFilter = usernameFilter;
+        this.readYourWrites = readYourWrites;
         this.passwordEncoder = passwordEncoder;
+        this.roleIdsOnly = roleIdsOnly;
     }
 
     @Transactional(readOnly = true)
     public UserDto findByUsername(String username) {
-        var userEntity = userRepository
-                .findByUsername(username)
-                .orElseThrow(() -> new BadCredentialsException("User or password is invalid"));
-        var roles = userEntity
-                .getRoles()
-                .stream()
-                .map(role -> new RoleDto(role.getId(), role.getName()))
-                .collect(Collectors.toSet());
-        return new UserDto(userEntity.getId(), userEntity.getUsername(), userEntity.getPassword(), roles);
+        if (!usernameFilter.mightExist(username)) {
+            throw new BadCredentialsException("User or password is invalid");
+        }
+        var rows = roleIdsOnly
+                ? userRepository.findCredentialRoleIdsByUsername(username)
+                : userRepository.findCredentialRowsByUsername(username);
+        if (rows.isEmpty()) {
+            usernameFilter.recordFalsePositive();
+            throw new BadCredentialsException("User or password is invalid");
+        }
+        return toUserDto(rows);
     }
 
-    @Transactional
+    @Transactional(readOnly = true)
+    public UserDto findById(UUID id) {
+        var rows = roleIdsOnly ? userRepository.findCredentialRoleIdsById(id) : userRepository.findCredentialRowsById(id);
+        if (rows.isEmpty()) {
+            throw new ResourceNotFoundException("User with id: " + id + " not found");
+        }
+        return toUserDto(rows);
+    }
+
+    // Rows map straight to the DTO: no entity, persistence context entry or dirty-checking snapshot per lookup
+    private UserDto toUserDto(List<UserCredentialsRow> rows) {
+        var first = rows.getFirst();
+        Set<RoleDto> roles;
+        if (roleIdsOnly) {
+            // Role membership by id only, names come from the registry instead of a join with TB_ROLES
+            roles = roleRegistry.byIds(rows.stream().map(UserCredentialsRow::roleId).filter(Objects::nonNull).toList());
+        } else {
+            roles = rows.stream()
+                    .filter(row -> row.roleId() != null)
+                    .map(row -> new RoleDto(row.roleId(), row.roleName()))
+                    .collect(Collectors.toSet());
+        }
+        return new UserDto(first.userId(), first.username(), first.password(), roles);
+    }
+
+    // No surrounding transaction: a pooled connection must not be held while the password is being hashed
+    @Timed(value = "users.create", histogram = true)
     public void createUser(CreateUserRequestDto createUserRequest) {
-        userRepository.findByUsername(createUserRequest.username()).ifPresentOrElse(user -> {
-            log.error("Username '{}' already exists", user.getUsername());
-            throw new ResourceAlreadyExistsException("Username: " + user.getUsername() + " already exists");
-        }, () -> {
-            var exception = new ResourceNotFoundException("Role not found");
-            User newUser = new User();
-            Role role = roleRepository
-                    .findByName(Role.Values.BASIC.name())
-                    .orElseThrow(() -> exception);
-            newUser.setPassword(passwordEncoder.encode(createUserRequest.password()));
-            newUser.setRoles(Set.of(role));
-            newUser.setUsername(createUserRequest.username());
+        var username = createUserRequest.username();
+        // Only a username the filter might know can be taken; the unique constraint still decides races
+        if (usernameFilter.mightExist(username) && userRepository.existsByUsername(username)) {
+            throw usernameAlreadyExists(username);
+        }
+        User newUser = new User();
+        Role role = roleRegistry.reference(Role.Values.BASIC);
+        newUser.setPassword(passwordEncoder.encode(createUserRequest.password()));
+        newUser.setRoles(Set.of(role));
+        newUser.setUsername(username);
+        try {
             userRepository.save(newUser);
-        });
+        } catch (DataIntegrityViolationException e) {
+            if (!userRepository.existsByUsername(username)) {
+                throw e;
+            }
+            usernameFilter.add(username);
+            throw usernameAlreadyExists(username);
+        }
+        usernameFilter.add(username);
+        // A login right after sign-up must not look the new user up on a replica that is still behind
+        readYourWrites.recordWrite(ReadYourWrites.usernameSubject(username));
+    }
+
+    private ResourceAlreadyExistsException usernameAlreadyExists(String username) {
+        log.error("Username '{}' already exists", username);
+        return new ResourceAlreadyExistsException("Username: " + username + " already exists");
     }
 
     @Transactional(readOnly = true)
     public List<UserResponseDto> findAllUsers() {
-        return userRepository.findAll().stream().map(user -> new UserResponseDto(
-                user.getId(),
-                user.getUsername(),
-                user.getRoles()
-                        .stream()
-                        .map(role -> new RoleDto(role.getId(), role.getName())).collect(Collectors.toSet()))).toList();
+        List<UserResponseDto> users = new ArrayList<>();
+        exportAllUsers(users::add);
+        return users;
+    }
+
+    @Transactional(readOnly = true)
+    public CursorPageDto<UserResponseDto> findUsers(String cursor, int limit) {
+        int pageSize = Math.max(1, Math.min(limit, MAX_PAGE_SIZE));
+        var ids = cursor == null
+                ? userRepository.findPageIds(Limit.of(pageSize + 1))
+                : userRepository.findPageIdsAfter(decodeCursor(cursor), Limit.of(pageSize + 1));
+        if (ids.isEmpty()) {
+            return new CursorPageDto<>(List.of(), null);
+        }
+        var pageIds = ids.subList(0, Math.min(ids.size(), pageSize));
+        List<UserResponseDto> users = new ArrayList<>(pageIds.size());
+        groupByUser(userRepository.findRoleRowsByIds(pageIds).iterator(), users::add);
+        var nextCursor = ids.size() > pageSize ? encodeCursor(pageIds.get(pageSize - 1)) : null;
+        return new CursorPageDto<>(users, nextCursor);
+    }
+
+    @Transactional(readOnly = true)
+    public void exportAllUsers(Consumer<UserResponseDto> consumer) {
+        try (var rows = userRepository.streamAllRoleRows()) {
+            groupByUser(rows.iterator(), consumer);
+        }
+    }
+
+    private void groupByUser(Iterator<UserRoleRow> rows, Consumer<UserResponseDto> consumer) {
+        UUID userId = null;
+        String username = null;
+        Set<RoleDto> roles = new HashSet<>();
+        while (rows.hasNext()) {
+            var row = rows.next();
+            if (!row.userId().equals(userId)) {
+                if (userId != null) {
+                    consumer.accept(new UserResponseDto(userId, username, roles));
+                }
+                userId = row.userId();
+                username = row.username();
+                roles = new HashSet<>();
+            }
+            if (row.roleId() != null) {
+                roles.add(new RoleDto(row.roleId(), row.roleName()));
+            }
+        }
+        if (userId != null) {
+            consumer.accept(new UserResponseDto(userId, username, roles));
+        }
+    }
+
+    private String encodeCursor(UUID userId) {
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(userId.toString().getBytes(StandardCharsets.UTF_8));
+    }
+
+    private UUID decodeCursor(String cursor) {
+        try {
+            return UUID.fromString(new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.UTF_8));
+        } catch (IllegalArgumentException e) {
+            throw new InvalidRequestException("Invalid cursor: " + cursor);
+        }
     }
 }
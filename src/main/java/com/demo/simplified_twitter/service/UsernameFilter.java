@@ -0,0 +1,159 @@
+package com.demo.simplified_twitter.service;
+
+import com.demo.simplified_twitter.repositories.UserRepository;
+import com.demo.simplified_twitter.support.BloomFilter;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.SmartLifecycle;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+@Component
+public class UsernameFilter implements SmartLifecycle {
+    private static final Logger log = LoggerFactory.getLogger(UsernameFilter.class);
+
+    private final UserRepository userRepository;
+    private final TransactionTemplate transactionTemplate;
+    private final boolean enabled;
+    private final long expectedUsers;
+    private final double falsePositiveProbability;
+    private final Duration rebuildInterval;
+    private final Duration syncInterval;
+    private final Counter negativeCounter;
+    private final Counter positiveCounter;
+    private final Counter falsePositiveCounter;
+    private volatile BloomFilter filter;
+    private BloomFilter rebuilding;
+    private volatile Instant lastSync = Instant.EPOCH;
+    private ScheduledExecutorService scheduler;
+
+    public UsernameFilter(UserRepository userRepository,
+                          PlatformTransactionManager transactionManager,
+                          MeterRegistry meterRegistry,
+                          @Value("${users.username-filter.enabled}") boolean enabled,
+                          @Value("${users.username-filter.expected-users}") long expectedUsers,
+                          @Value("${users.username-filter.false-positive-probability}") double falsePositiveProbability,
+                          @Value("${users.username-filter.rebuild-interval}") Duration rebuildInterval,
+                          @Value("${users.username-filter.sync-interval}") Duration syncInterval) {
+        this.userRepository = userRepository;
+        // Read-write on purpose: read-only transactions are routed to a replica
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.enabled = enabled;
+        this.expectedUsers = expectedUsers;
+        this.falsePositiveProbability = falsePositiveProbability;
+        this.rebuildInterval = rebuildInterval;
+        this.syncInterval = syncInterval;
+        this.negativeCounter = meterRegistry.counter("users.username.filter", "result", "negative");
+        this.positiveCounter = meterRegistry.counter("users.username.filter", "result", "positive");
+        this.falsePositiveCounter = meterRegistry.counter("users.username.filter", "result", "false_positive");
+    }
+
+    public boolean mightExist(String username) {
+        var current = filter;
+        if (current == null) {
+            return true;
+        }
+        if (current.mightContain(username)) {
+            positiveCounter.increment();
+            return true;
+        }
+        negativeCounter.increment();
+        return false;
+    }
+
+    public void recordFalsePositive() {
+        falsePositiveCounter.increment();
+    }
+
+    public synchronized void add(String username) {
+        if (filter != null) {
+            filter.put(username);
+        }
+        // Also record it in a filter being rebuilt, whose table scan may have started before the insert committed
+        if (rebuilding != null) {
+            rebuilding.put(username);
+        }
+    }
+
+    public void rebuild() {
+        var startedAt = Instant.now();
+        long users = transactionTemplate.execute(status -> userRepository.count());
+        var next = new BloomFilter(Math.max(expectedUsers, users * 2), falsePositiveProbability);
+        synchronized (this) {
+            rebuilding = next;
+        }
+        try {
+            transactionTemplate.executeWithoutResult(status -> {
+                try (var usernames = userRepository.streamAllUsernames()) {
+                    usernames.forEach(next::put);
+                }
+            });
+            synchronized (this) {
+                filter = next;
+            }
+            lastSync = startedAt;
+        } finally {
+            synchronized (this) {
+                rebuilding = null;
+            }
+        }
+    }
+
+    public void sync() {
+        if (filter == null) {
+            return;
+        }
+        var startedAt = Instant.now();
+        // Overlap the previous window to tolerate clock skew between nodes and inserts that committed late
+        var since = lastSync.minus(syncInterval);
+        transactionTemplate.execute(status -> userRepository.findUsernamesCreatedAfter(since)).forEach(this::add);
+        lastSync = startedAt;
+    }
+
+    @Override
+    public void start() {
+        if (!enabled) {
+            return;
+        }
+        scheduler = Executors.newSingleThreadScheduledExecutor(Thread.ofPlatform().name("username-filter-rebuild").daemon().factory());
+        scheduler.scheduleWithFixedDelay(() -> {
+            try {
+                long startedAt = System.nanoTime();
+                rebuild();
+                log.info("Rebuilt username filter in {} ms", TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - startedAt));
+            } catch (RuntimeException e) {
+                log.warn("Failed to rebuild username filter", e);
+            }
+        }, 0, rebuildInterval.toMillis(), TimeUnit.MILLISECONDS);
+        scheduler.scheduleWithFixedDelay(() -> {
+            try {
+                sync();
+            } catch (RuntimeException e) {
+                log.warn("Failed to sync username filter", e);
+            }
+        }, syncInterval.toMillis(), syncInterval.toMillis(), TimeUnit.MILLISECONDS);
+    }
+
+    @Override
+    public void stop() {
+        if (scheduler != null) {
+            scheduler.shutdownNow();
+            scheduler = null;
+        }
+    }
+
+    @Override
+    public boolean isRunning() {
+        return scheduler != null;
+    }
+}
@@ -1,23 +1,31 @@
 package com.demo.simplified_twitter.controller;
 
+import com.demo.simplified_twitter.config.MessageConverterConfig;
 import com.demo.simplified_twitter.config.SecurityConfig;
 import com.demo.simplified_twitter.dto.CreateUserRequestDto;
+import com.demo.simplified_twitter.dto.CursorPageDto;
 import com.demo.simplified_twitter.dto.HttpErrorResponseDto;
 import com.demo.simplified_twitter.dto.UserResponseDto;
 import com.demo.simplified_twitter.exceptions.ResourceAlreadyExistsException;
 import com.demo.simplified_twitter.faker.CreateUserRequestFaker;
 import com.demo.simplified_twitter.faker.UserResponseDtoFaker;
+import com.demo.simplified_twitter.service.ChangeVersions;
+import com.demo.simplified_twitter.service.FollowService;
+import com.demo.simplified_twitter.service.TweetService;
 import com.demo.simplified_twitter.service.UserService;
 import com.fasterxml.jackson.core.type.TypeReference;
 import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.dataformat.cbor.databind.CBORMapper;
 import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
 import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.DisplayName;
 import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest;
 import org.springframework.boot.test.mock.mockito.MockBean;
 import org.springframework.context.annotation.Import;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
@@ -29,8 +37,11 @@ import java.time.Instant;
 import java.util.Collections;
 import java.util.List;
 import java.util.Optional;
+import java.util.function.Consumer;
 
 import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.doAnswer;
 import static org.mockito.Mockito.doNothing;
 import static org.mockito.Mockito.doThrow;
 import static org.mockito.Mockito.times;
@@ -39,9 +50,10 @@ import static org.mockito.Mockito.when;
 import static org.springframework.security.test.web.servlet.request.SecurityMockMvcRequestPostProcessors.jwt;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
 
-@Import(SecurityConfig.class)
+@Import({SecurityConfig.class, MessageConverterConfig.class})
 @WebMvcTest(UserController.class)
 class UserControllerTests {
 
@@ -51,6 +63,15 @@ class UserControllerTests {
     @MockBean
     private UserService userService;
 
+    @MockBean
+    private FollowService followService;
+
+    @MockBean
+    private TweetService tweetService;
+
+    @MockBean
+    private ChangeVersions changeVersions;
+
     private static final ObjectMapper objectMapper = new ObjectMapper();
 
     @BeforeAll
@@ -58,6 +79,11 @@ class UserControllerTests {
         objectMapper.registerModule(new JavaTimeModule());
     }
 
+    @BeforeEach
+    void stubVersions() {
+        when(changeVersions.usersTag()).thenReturn("W/\"u2.18f\"");
+    }
+
     @Test
     @DisplayName("Should create an user")
     void shouldCreateAnUserWhenUserIsAuthenticated() throws Exception {
@@ -75,6 +101,41 @@ class UserControllerTests {
         result.andExpect(status().isCreated());
     }
 
+    @Test
+    @DisplayName("Should return users as CBOR when the client accepts it")
+    void shouldReturnUsersAsCborWhenTheClientAcceptsIt() throws Exception {
+        List<UserResponseDto> expectedListOfUsersToBeReturned = UserResponseDtoFaker.fakeMany();
+        when(userService.findAllUsers()).thenReturn(expectedListOfUsersToBeReturned);
+
+        var response = this.mockMvc.perform(get("/users").with(jwt().authorities(new SimpleGrantedAuthority("SCOPE_ADMIN")))
+                        .accept(MediaType.APPLICATION_CBOR))
+                .andExpect(status().isOk())
+                .andExpect(header().string(HttpHeaders.CONTENT_TYPE, MediaType.APPLICATION_CBOR_VALUE))
+                .andReturn().getResponse();
+        var users = new CBORMapper().readValue(response.getContentAsByteArray(), new TypeReference<List<UserResponseDto>>() {
+        });
+
+        assertThat(users).usingRecursiveComparison().isEqualTo(expectedListOfUsersToBeReturned);
+    }
+
+    @Test
+    @DisplayName("Should answer 304 without querying users when the client already has the current version")
+    void shouldAnswerNotModifiedWithoutQueryingUsersWhenTheClientAlreadyHasTheCurrentVersion() throws Exception {
+        when(userService.findAllUsers()).thenReturn(UserResponseDtoFaker.fakeMany());
+        var admin = jwt().authorities(new SimpleGrantedAuthority("SCOPE_ADMIN"));
+        var etag = this.mockMvc.perform(get("/users").with(admin))
+                .andExpect(status().isOk())
+                .andExpect(header().string(HttpHeaders.CACHE_CONTROL, "no-cache, private"))
+                .andReturn().getResponse().getHeader(HttpHeaders.ETAG);
+
+        this.mockMvc.perform(get("/users").with(admin).header(HttpHeaders.IF_NONE_MATCH, etag))
+                .andExpect(status().isNotModified())
+                .andExpect(header().string(HttpHeaders.ETAG, etag));
+
+        assertThat(etag).isNotNull();
+        verify(userService, times(1)).findAllUsers();
+    }
+
     @Test
     @DisplayName("Should return all users when a user with admin permission is requesting the information")
     void shouldRetrieveAllUsersWhenAdminUserIsRequesting() throws Exception {
@@ -139,4 +200,39 @@ class UserControllerTests {
         assertThat(expectedHttpErrorResponse.getBody()).isEqualTo(createUserRequestErrorResponse);
         httpResponse.andExpect(status().isConflict());
     }
+
+    @Test
+    @DisplayName("Should return a page of users when a limit is informed")
+    void shouldReturnAPageOfUsersWhenALimitIsInformed() throws Exception {
+        List<UserResponseDto> users = UserResponseDtoFaker.fakeMany();
+        when(userService.findUsers(null, 2)).thenReturn(new CursorPageDto<>(users.subList(0, 2), "next"));
+
+        var httpResponse = this.mockMvc.perform(get("/users").param("limit", "2").with(jwt().authorities(new SimpleGrantedAuthority("SCOPE_ADMIN"))));
+        var page = objectMapper.readValue(httpResponse.andReturn().getResponse().getContentAsString(StandardCharsets.UTF_8), new TypeReference<CursorPageDto<UserResponseDto>>() {
+        });
+
+        httpResponse.andExpect(status().isOk());
+        assertThat(page.items()).usingRecursiveComparison().isEqualTo(users.subList(0, 2));
+        assertThat(page.nextCursor()).isEqualTo("next");
+        verify(userService, times(0)).findAllUsers();
+    }
+
+    @Test
+    @DisplayName("Should stream one user per line when NDJSON is requested")
+    @SuppressWarnings("unchecked")
+    void shouldStreamOneUserPerLineWhenNdjsonIsRequested() throws Exception {
+        List<UserResponseDto> users = UserResponseDtoFaker.fakeMany();
+        doAnswer(invocation -> {
+            users.forEach(invocation.getArgument(0, Consumer.class));
+            return null;
+        }).when(userService).exportAllUsers(any());
+
+        var httpResponse = this.mockMvc.perform(get("/users").accept(MediaType.APPLICATION_NDJSON).with(jwt().authorities(new SimpleGrantedAuthority("SCOPE_ADMIN"))));
+        var lines = httpResponse.andReturn().getResponse().getContentAsString(StandardCharsets.UTF_8).lines().toList();
+
+        httpResponse.andExpect(status().isOk());
+        assertThat(lines).hasSameSizeAs(users);
+        assertThat(objectMapper.readValue(lines.get(0), UserResponseDto.class)).usingRecursiveComparison().isEqualTo(users.get(0));
+        verify(userService, times(0)).findAllUsers();
+    }
 }
@@ -0,0 +1,113 @@
+package com.demo.simplified_twitter.datasource;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.time.Duration;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+class ReplicaRoutingDataSourceTests {
+    private final DataSource primary = mock();
+    private final DataSource firstReplica = mock();
+    private final DataSource secondReplica = mock();
+    private final Connection primaryConnection = mock();
+    private final Connection firstReplicaConnection = mock();
+    private final Connection secondReplicaConnection = mock();
+    private final ReadYourWrites readYourWrites = new ReadYourWrites(Duration.ofSeconds(5), 100);
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+    private final ReplicaRoutingDataSource dataSource = new ReplicaRoutingDataSource(primary, List.of(firstReplica, secondReplica),
+            readYourWrites, Duration.ofSeconds(5), meterRegistry);
+
+    @AfterEach
+    void tearDown() {
+        TransactionSynchronizationManager.setCurrentTransactionReadOnly(false);
+        TransactionSynchronizationManager.setActualTransactionActive(false);
+    }
+
+    @Test
+    @DisplayName("Should send read-write transactions to the primary and spread read-only ones over the replicas")
+    void shouldSendReadWriteTransactionsToThePrimaryAndSpreadReadOnlyOnesOverTheReplicas() throws SQLException {
+        stubConnections();
+
+        assertThat(dataSource.getConnection()).isSameAs(primaryConnection);
+        readOnlyTransaction();
+        var first = dataSource.getConnection();
+        var second = dataSource.getConnection();
+
+        assertThat(List.of(first, second)).containsExactlyInAnyOrder(firstReplicaConnection, secondReplicaConnection);
+        assertThat(meterRegistry.get("db.routing").tag("target", "replica").counter().count()).isEqualTo(2);
+    }
+
+    @Test
+    @DisplayName("Should read from the primary within the read-your-writes window of the subject")
+    void shouldReadFromThePrimaryWithinTheReadYourWritesWindowOfTheSubject() throws SQLException {
+        stubConnections();
+        TransactionSynchronizationManager.setActualTransactionActive(true);
+        readYourWrites.callAs("alice", () -> connection());
+
+        readOnlyTransaction();
+
+        assertThat(readYourWrites.callAs("alice", this::connection)).isSameAs(primaryConnection);
+        assertThat(readYourWrites.callAs("bob", this::connection)).isNotSameAs(primaryConnection);
+    }
+
+    @Test
+    @DisplayName("Should fall back to the primary when the replicas fail")
+    void shouldFallBackToThePrimaryWhenTheReplicasFail() throws SQLException {
+        when(primary.getConnection()).thenReturn(primaryConnection);
+        when(firstReplica.getConnection()).thenThrow(new SQLException("Connection refused"));
+        when(secondReplica.getConnection()).thenThrow(new SQLException("Connection refused"));
+        readOnlyTransaction();
+
+        assertThat(dataSource.getConnection()).isSameAs(primaryConnection);
+        assertThat(dataSource.getConnection()).isSameAs(primaryConnection);
+        assertThat(dataSource.getConnection()).isSameAs(primaryConnection);
+
+        assertThat(meterRegistry.get("db.routing").tag("reason", "replica_failed").counter().count()).isEqualTo(2);
+        assertThat(meterRegistry.get("db.routing").tag("reason", "no_healthy_replica").counter().count()).isEqualTo(1);
+    }
+
+    @Test
+    @DisplayName("Should route to a replica again once it passes a health check")
+    void shouldRouteToAReplicaAgainOnceItPassesAHealthCheck() throws SQLException {
+        when(primary.getConnection()).thenReturn(primaryConnection);
+        when(firstReplica.getConnection()).thenThrow(new SQLException("Connection refused")).thenReturn(firstReplicaConnection);
+        when(secondReplica.getConnection()).thenThrow(new SQLException("Connection refused"));
+        when(firstReplicaConnection.isValid(1)).thenReturn(true);
+        readOnlyTransaction();
+        dataSource.getConnection();
+
+        dataSource.checkReplicas();
+
+        assertThat(dataSource.getConnection()).isSameAs(firstReplicaConnection);
+    }
+
+    private void stubConnections() throws SQLException {
+        when(primary.getConnection()).thenReturn(primaryConnection);
+        when(firstReplica.getConnection()).thenReturn(firstReplicaConnection);
+        when(secondReplica.getConnection()).thenReturn(secondReplicaConnection);
+    }
+
+    private void readOnlyTransaction() {
+        TransactionSynchronizationManager.setActualTransactionActive(true);
+        TransactionSynchronizationManager.setCurrentTransactionReadOnly(true);
+    }
+
+    private Connection connection() {
+        try {
+            return dataSource.getConnection();
+        } catch (SQLException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+}
@@ -0,0 +1,33 @@
+package com.demo.simplified_twitter.metrics;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.web.servlet.HandlerMapping;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class RequestStatementsFilterTests {
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+    private final RequestStatementsFilter filter = new RequestStatementsFilter(meterRegistry);
+    private final StatementCounter statementCounter = new StatementCounter();
+
+    @Test
+    @DisplayName("Should record the statements executed while handling a request")
+    void shouldRecordTheStatementsExecutedWhileHandlingARequest() throws Exception {
+        var request = new MockHttpServletRequest("DELETE", "/tweets/1");
+        request.setAttribute(HandlerMapping.BEST_MATCHING_PATTERN_ATTRIBUTE, "/tweets/{id}");
+
+        filter.doFilter(request, new MockHttpServletResponse(), (req, res) -> {
+            statementCounter.inspect("select 1");
+            statementCounter.inspect("delete from tb_tweets");
+        });
+        statementCounter.inspect("select outside of a request");
+
+        var summary = meterRegistry.get("http.server.requests.statements").tag("uri", "/tweets/{id}").summary();
+        assertThat(summary.count()).isEqualTo(1);
+        assertThat(summary.totalAmount()).isEqualTo(2);
+    }
+}
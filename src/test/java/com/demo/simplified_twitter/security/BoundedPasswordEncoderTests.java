@@ -0,0 +1,80 @@
+package com.demo.simplified_twitter.security;
+
+import com.demo.simplified_twitter.exceptions.ServiceUnavailableException;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.security.crypto.password.PasswordEncoder;
+
+import java.time.Duration;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+class BoundedPasswordEncoderTests {
+    private final PasswordEncoder delegate = mock();
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+
+    @Test
+    @DisplayName("Should reject sign-ups when their lane is full while still accepting logins")
+    void shouldRejectSignUpsWhenTheirLaneIsFullWhileStillAcceptingLogins() throws Exception {
+        var started = new CountDownLatch(1);
+        var release = new CountDownLatch(1);
+        when(delegate.encode("password")).then(invocation -> {
+            started.countDown();
+            release.await(5, TimeUnit.SECONDS);
+            return "encoded";
+        });
+        when(delegate.matches("password", "encoded")).thenReturn(true);
+        try (var encoder = new BoundedPasswordEncoder(delegate, 1, 1, Duration.ofSeconds(5), meterRegistry)) {
+            var running = CompletableFuture.supplyAsync(() -> encoder.encode("password"));
+            started.await(5, TimeUnit.SECONDS);
+            var queued = CompletableFuture.supplyAsync(() -> encoder.encode("password"));
+            awaitQueueDepth("signup", 1);
+
+            var exception = assertThrows(ServiceUnavailableException.class, () -> encoder.encode("password"));
+            var login = CompletableFuture.supplyAsync(() -> encoder.matches("password", "encoded"));
+            awaitQueueDepth("login", 1);
+            release.countDown();
+
+            assertThat(exception.getMessage()).isEqualTo("Too many concurrent authentication requests, try again later");
+            assertThat(login.get(5, TimeUnit.SECONDS)).isTrue();
+            assertThat(running.get(5, TimeUnit.SECONDS)).isEqualTo("encoded");
+            assertThat(queued.get(5, TimeUnit.SECONDS)).isEqualTo("encoded");
+            assertThat(meterRegistry.get("auth.password.rejected").tag("lane", "signup").counter().count()).isEqualTo(1);
+        }
+    }
+
+    @Test
+    @DisplayName("Should reject a login that waits longer than the maximum wait")
+    void shouldRejectALoginThatWaitsLongerThanTheMaximumWait() throws Exception {
+        var started = new CountDownLatch(1);
+        var release = new CountDownLatch(1);
+        when(delegate.matches(anyString(), anyString())).then(invocation -> {
+            started.countDown();
+            release.await(5, TimeUnit.SECONDS);
+            return true;
+        });
+        try (var encoder = new BoundedPasswordEncoder(delegate, 1, 10, Duration.ofMillis(50), meterRegistry)) {
+            CompletableFuture.runAsync(() -> encoder.matches("password", "encoded"));
+            started.await(5, TimeUnit.SECONDS);
+
+            assertThrows(ServiceUnavailableException.class, () -> encoder.matches("other", "encoded"));
+            release.countDown();
+        }
+    }
+
+    private void awaitQueueDepth(String lane, double depth) throws InterruptedException {
+        var gauge = meterRegistry.get("auth.password.queue.depth").tag("lane", lane).gauge();
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+        while (gauge.value() != depth && System.nanoTime() < deadline) {
+            Thread.sleep(5);
+        }
+    }
+}
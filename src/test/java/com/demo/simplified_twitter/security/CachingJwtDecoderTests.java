@@ -0,0 +1,71 @@
+package com.demo.simplified_twitter.security;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.security.oauth2.jwt.BadJwtException;
+import org.springframework.security.oauth2.jwt.Jwt;
+import org.springframework.security.oauth2.jwt.JwtDecoder;
+
+import java.time.Clock;
+import java.time.Instant;
+import java.time.ZoneOffset;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class CachingJwtDecoderTests {
+    private final JwtDecoder delegate = mock();
+    private final Instant now = Instant.parse("2024-11-01T10:00:00Z");
+
+    @Test
+    @DisplayName("Should verify a token only once while it is cached")
+    void shouldVerifyATokenOnlyOnceWhileItIsCached() {
+        var meterRegistry = new SimpleMeterRegistry();
+        var decoder = new CachingJwtDecoder(delegate, 10, Clock.fixed(now, ZoneOffset.UTC));
+        decoder.bindTo(meterRegistry);
+        var jwt = jwt(now.plusSeconds(60));
+        when(delegate.decode("token")).thenReturn(jwt);
+
+        var first = decoder.decode("token");
+        var second = decoder.decode("token");
+
+        assertThat(first).isSameAs(jwt);
+        assertThat(second).isSameAs(jwt);
+        verify(delegate, times(1)).decode("token");
+        assertThat(meterRegistry.get("cache.gets").tag("cache", "jwt.decoder").tag("result", "hit").functionCounter().count()).isEqualTo(1);
+    }
+
+    @Test
+    @DisplayName("Should verify the token again once it has expired")
+    void shouldVerifyTheTokenAgainOnceItHasExpired() {
+        var decoder = new CachingJwtDecoder(delegate, 10, Clock.fixed(now, ZoneOffset.UTC));
+        when(delegate.decode("token")).thenReturn(jwt(now.minusSeconds(1)));
+
+        decoder.decode("token");
+        decoder.decode("token");
+
+        verify(delegate, times(2)).decode("token");
+    }
+
+    @Test
+    @DisplayName("Should not cache tokens that fail verification")
+    void shouldNotCacheTokensThatFailVerification() {
+        var decoder = new CachingJwtDecoder(delegate, 10, Clock.fixed(now, ZoneOffset.UTC));
+        when(delegate.decode("token")).thenThrow(new BadJwtException("Invalid signature"));
+
+        assertThrows(BadJwtException.class, () -> decoder.decode("token"));
+        assertThrows(BadJwtException.class, () -> decoder.decode("token"));
+
+        verify(delegate, times(2)).decode("token");
+    }
+
+    private Jwt jwt(Instant expiresAt) {
+        return new Jwt("token", now.minusSeconds(60), expiresAt, Map.of("alg", "RS256"), Map.of("sub", "gustavo"));
+    }
+}
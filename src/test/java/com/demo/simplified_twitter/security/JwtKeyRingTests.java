@@ -0,0 +1,139 @@
+package com.demo.simplified_twitter.security;
+
+import com.nimbusds.jose.jwk.JWK;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.EnumSource;
+import org.springframework.security.oauth2.jwt.BadJwtException;
+import org.springframework.security.oauth2.jwt.JwtClaimsSet;
+import org.springframework.security.oauth2.jwt.JwtEncoderParameters;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.ZoneId;
+import java.time.ZoneOffset;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+class JwtKeyRingTests {
+
+    @ParameterizedTest
+    @EnumSource(JwtSigningAlgorithm.class)
+    @DisplayName("Should verify tokens signed with each supported algorithm")
+    void shouldVerifyTokensSignedWithEachSupportedAlgorithm(JwtSigningAlgorithm algorithm) {
+        var keyRing = new JwtKeyRing(algorithm, null, Duration.ZERO, Duration.ofMinutes(15));
+        var token = encode(keyRing, Instant.now());
+
+        var jwt = keyRing.jwtDecoder().decode(token);
+
+        assertThat(jwt.getSubject()).isEqualTo("user");
+        assertThat(jwt.getHeaders()).containsEntry("alg", algorithm.getJwsAlgorithm().getName());
+        assertThat(jwt.getHeaders()).containsEntry("kid", keyRing.signingKey().keyId());
+        assertThat(keyRing.publicJwkSet().getKeys()).allSatisfy(jwk -> assertThat(jwk.isPrivate()).isFalse());
+    }
+
+    @Test
+    @DisplayName("Should keep accepting tokens of a rotated key until they can no longer be valid")
+    void shouldKeepAcceptingTokensOfARotatedKeyUntilTheyCanNoLongerBeValid() {
+        var now = Instant.now();
+        var clock = new MutableClock(now);
+        var keyRing = new JwtKeyRing(JwtSigningAlgorithm.ES256, null, JwtKeyStore.inMemory(), Duration.ZERO, Duration.ZERO,
+                Duration.ZERO, Duration.ofMinutes(15), clock);
+        var decoder = keyRing.jwtDecoder();
+        var token = encode(keyRing, now);
+        var oldKeyId = keyRing.signingKey().keyId();
+
+        keyRing.rotate();
+
+        assertThat(keyRing.signingKey().keyId()).isNotEqualTo(oldKeyId);
+        assertThat(keyRing.publicJwkSet().getKeys()).hasSize(2);
+        assertThat(decoder.decode(token).getSubject()).isEqualTo("user");
+
+        clock.instant = now.plus(Duration.ofMinutes(16));
+        keyRing.rotate();
+
+        assertThat(keyRing.publicJwkSet().getKeyByKeyId(oldKeyId)).isNull();
+        assertThrows(BadJwtException.class, () -> decoder.decode(token));
+    }
+
+    @Test
+    @DisplayName("Should publish the next key one JWKS cache lifetime before it starts signing")
+    void shouldPublishTheNextKeyOneJwksCacheLifetimeBeforeItStartsSigning() {
+        var now = Instant.now();
+        var clock = new MutableClock(now);
+        var keyRing = new JwtKeyRing(JwtSigningAlgorithm.ES256, null, JwtKeyStore.inMemory(), Duration.ofHours(1), Duration.ofMinutes(5),
+                Duration.ofSeconds(30), Duration.ofMinutes(15), clock);
+        var oldKeyId = keyRing.signingKey().keyId();
+
+        clock.instant = now.plus(Duration.ofMinutes(54));
+        keyRing.sync();
+        assertThat(keyRing.publicJwkSet().getKeys()).hasSize(1);
+
+        clock.instant = now.plus(Duration.ofMinutes(55));
+        keyRing.sync();
+        assertThat(keyRing.publicJwkSet().getKeys()).hasSize(2);
+        assertThat(keyRing.signingKey().keyId()).isEqualTo(oldKeyId);
+
+        clock.instant = now.plus(Duration.ofMinutes(60));
+        var newKeyId = keyRing.signingKey().keyId();
+        assertThat(newKeyId).isNotEqualTo(oldKeyId);
+
+        clock.instant = now.plus(Duration.ofMinutes(75));
+        keyRing.sync();
+        assertThat(keyRing.publicJwkSet().getKeys()).extracting(JWK::getKeyID).containsExactly(newKeyId);
+    }
+
+    @Test
+    @DisplayName("Should verify tokens signed by another node sharing the store and keep its keys across restarts")
+    void shouldVerifyTokensSignedByAnotherNodeSharingTheStoreAndKeepItsKeysAcrossRestarts() {
+        var store = JwtKeyStore.inMemory();
+        var nodeA = new JwtKeyRing(JwtSigningAlgorithm.EDDSA, null, store, Duration.ofHours(1), Duration.ofMinutes(5),
+                Duration.ofSeconds(30), Duration.ofMinutes(15));
+        var nodeB = new JwtKeyRing(JwtSigningAlgorithm.EDDSA, null, store, Duration.ofHours(1), Duration.ofMinutes(5),
+                Duration.ofSeconds(30), Duration.ofMinutes(15));
+        var token = encode(nodeA, Instant.now());
+
+        var restartedNodeA = new JwtKeyRing(JwtSigningAlgorithm.EDDSA, null, store, Duration.ofHours(1), Duration.ofMinutes(5),
+                Duration.ofSeconds(30), Duration.ofMinutes(15));
+
+        assertThat(nodeB.jwtDecoder().decode(token).getSubject()).isEqualTo("user");
+        assertThat(restartedNodeA.jwtDecoder().decode(token).getSubject()).isEqualTo("user");
+        assertThat(restartedNodeA.signingKey().keyId()).isEqualTo(nodeA.signingKey().keyId());
+    }
+
+    private String encode(JwtKeyRing keyRing, Instant issuedAt) {
+        var claims = JwtClaimsSet.builder()
+                .issuer("simplified-twitter")
+                .subject("user")
+                .issuedAt(issuedAt)
+                .expiresAt(issuedAt.plus(Duration.ofHours(1)))
+                .build();
+        return new KeyRingJwtEncoder(keyRing).encode(JwtEncoderParameters.from(claims)).getTokenValue();
+    }
+
+    private static class MutableClock extends Clock {
+        private Instant instant;
+
+        MutableClock(Instant instant) {
+            this.instant = instant;
+        }
+
+        @Override
+        public Instant instant() {
+            return instant;
+        }
+
+        @Override
+        public ZoneId getZone() {
+            return ZoneOffset.UTC;
+        }
+
+        @Override
+        public Clock withZone(ZoneId zone) {
+            return this;
+        }
+    }
+}
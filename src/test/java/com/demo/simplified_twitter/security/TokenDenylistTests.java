@@ -0,0 +1,81 @@
+package com.demo.simplified_twitter.security;
+
+import com.demo.simplified_twitter.support.BloomFilter;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.security.oauth2.jwt.BadJwtException;
+import org.springframework.security.oauth2.jwt.Jwt;
+import org.springframework.security.oauth2.jwt.JwtDecoder;
+
+import java.time.Instant;
+import java.util.Map;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+class TokenDenylistTests {
+    private final Instant now = Instant.parse("2024-11-01T10:00:00Z");
+    private final TokenDenylist denylist = new TokenDenylist(1000, 0.001);
+
+    @Test
+    @DisplayName("Should reject a revoked token even when the delegate still accepts it")
+    void shouldRejectARevokedTokenEvenWhenTheDelegateStillAcceptsIt() {
+        JwtDecoder delegate = mock();
+        var decoder = new RevocationCheckingJwtDecoder(delegate, denylist);
+        when(delegate.decode("revoked")).thenReturn(jwt("revoked-id"));
+        when(delegate.decode("valid")).thenReturn(jwt("valid-id"));
+        denylist.add("revoked-id", now.plusSeconds(60));
+
+        var exception = assertThrows(BadJwtException.class, () -> decoder.decode("revoked"));
+
+        assertThat(exception.getMessage()).isEqualTo("Token has been revoked");
+        assertThat(decoder.decode("valid").getId()).isEqualTo("valid-id");
+    }
+
+    @Test
+    @DisplayName("Should drop revocations once the revoked token has expired")
+    void shouldDropRevocationsOnceTheRevokedTokenHasExpired() {
+        for (int i = 0; i < 100; i++) {
+            denylist.add("expired-" + i, now.minusSeconds(1));
+        }
+        denylist.add("active", now.plusSeconds(60));
+
+        var removed = denylist.prune(now);
+
+        assertThat(removed).isEqualTo(100);
+        assertThat(denylist.size()).isEqualTo(1);
+        assertThat(denylist.isRevoked("active")).isTrue();
+        assertThat(denylist.isRevoked("expired-0")).isFalse();
+    }
+
+    @Test
+    @DisplayName("Should answer most lookups for tokens that were never revoked from the filter alone")
+    void shouldAnswerMostLookupsForTokensThatWereNeverRevokedFromTheFilterAlone() {
+        var filter = new BloomFilter(1000, 0.01);
+        for (int i = 0; i < 1000; i++) {
+            filter.put(UUID.randomUUID().toString());
+        }
+
+        long falsePositives = 0;
+        for (int i = 0; i < 10000; i++) {
+            if (filter.mightContain(UUID.randomUUID().toString())) {
+                falsePositives++;
+            }
+        }
+
+        assertThat(falsePositives).isLessThan(300);
+    }
+
+    private Jwt jwt(String id) {
+        return Jwt.withTokenValue("token")
+                .header("alg", "RS256")
+                .jti(id)
+                .issuedAt(now)
+                .expiresAt(now.plusSeconds(60))
+                .claims(claims -> claims.putAll(Map.of("sub", "user")))
+                .build();
+    }
+}
@@ -0,0 +1,71 @@
+package com.demo.simplified_twitter.service;
+
+import com.demo.simplified_twitter.repositories.TweetRepository;
+import com.demo.simplified_twitter.repositories.UserRepository;
+import com.demo.simplified_twitter.repositories.projections.TweetsVersionRow;
+import com.demo.simplified_twitter.repositories.projections.UsersVersionRow;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.time.Instant;
+import java.util.List;
+import java.util.Set;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.anyCollection;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+class ChangeVersionsTests {
+    private final UserRepository userRepository = mock();
+    private final TweetRepository tweetRepository = mock();
+    private final ChangeVersions changeVersions = new ChangeVersions(userRepository, tweetRepository);
+    private final UUID alice = UUID.randomUUID();
+    private final UUID bob = UUID.randomUUID();
+
+    @Test
+    @DisplayName("Should derive the same tag on every node until the tweets change")
+    void shouldDeriveTheSameTagOnEveryNodeUntilTheTweetsChange() {
+        var otherNode = new ChangeVersions(userRepository, tweetRepository);
+        when(tweetRepository.findVersion())
+                .thenReturn(new TweetsVersionRow(2, 7L))
+                .thenReturn(new TweetsVersionRow(2, 7L))
+                .thenReturn(new TweetsVersionRow(3, 7L))
+                .thenReturn(new TweetsVersionRow(2, 9L));
+
+        var tag = changeVersions.tweetsTag();
+
+        assertThat(otherNode.tweetsTag()).isEqualTo(tag).startsWith("W/\"");
+        assertThat(changeVersions.tweetsTag()).isNotEqualTo(tag);
+        assertThat(changeVersions.tweetsTag()).isNotEqualTo(tag);
+    }
+
+    @Test
+    @DisplayName("Should change a timeline tag when its owner follows someone or a followed user deletes tweets")
+    void shouldChangeATimelineTagWhenItsOwnerFollowsSomeoneOrAFollowedUserDeletesTweets() {
+        when(tweetRepository.findVersionByUserIds(anyCollection()))
+                .thenReturn(new TweetsVersionRow(4, 12L))
+                .thenReturn(new TweetsVersionRow(4, 12L))
+                .thenReturn(new TweetsVersionRow(3, 12L));
+
+        var beforeFollow = changeVersions.timelineTag(alice, Set.of());
+        var afterFollow = changeVersions.timelineTag(alice, Set.of(bob));
+        var afterDelete = changeVersions.timelineTag(alice, Set.of(bob));
+
+        assertThat(afterFollow).isNotEqualTo(beforeFollow);
+        assertThat(afterDelete).isNotEqualTo(afterFollow);
+    }
+
+    @Test
+    @DisplayName("Should change the users tag when a user signs up on any node")
+    void shouldChangeTheUsersTagWhenAUserSignsUpOnAnyNode() {
+        when(userRepository.findVersion())
+                .thenReturn(new UsersVersionRow(0, null))
+                .thenReturn(new UsersVersionRow(1, Instant.parse("2026-01-01T00:00:00Z")));
+
+        var tags = List.of(changeVersions.usersTag(), changeVersions.usersTag());
+
+        assertThat(tags.get(1)).isNotEqualTo(tags.get(0));
+    }
+}
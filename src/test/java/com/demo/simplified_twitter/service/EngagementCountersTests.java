@@ -0,0 +1,117 @@
+package com.demo.simplified_twitter.service;
+
+import com.demo.simplified_twitter.entities.Engagement;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.jdbc.CannotGetJdbcConnectionException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.ParameterizedPreparedStatementSetter;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import java.sql.PreparedStatement;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class EngagementCountersTests {
+    private final JdbcTemplate jdbcTemplate = mock();
+    private final PlatformTransactionManager transactionManager = mock();
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+    private final EngagementCounters engagementCounters = new EngagementCounters(jdbcTemplate, transactionManager, meterRegistry,
+            500, Duration.ofSeconds(1));
+
+    @Test
+    @DisplayName("Should flush the deltas of all tweets in one batch ordered by tweet id")
+    @SuppressWarnings("unchecked")
+    void shouldFlushTheDeltasOfAllTweetsInOneBatchOrderedByTweetId() throws Exception {
+        var written = recordWrites();
+        engagementCounters.add(2L, Engagement.Type.LIKE, 1);
+        engagementCounters.add(1L, Engagement.Type.RETWEET, 1);
+        engagementCounters.add(2L, Engagement.Type.LIKE, 1);
+        engagementCounters.add(1L, Engagement.Type.LIKE, -1);
+
+        engagementCounters.flush();
+        engagementCounters.flush();
+
+        verify(jdbcTemplate, times(1)).batchUpdate(anyString(), any(Collection.class), anyInt(), any(ParameterizedPreparedStatementSetter.class));
+        assertThat(written).containsExactly(new long[]{1, -1, 1}, new long[]{2, 2, 0});
+        assertThat(engagementCounters.unflushed(2L)).containsExactly(0, 0);
+        assertThat(meterRegistry.get("tweets.engagement.pending").gauge().value()).isZero();
+        assertThat(engagementCounters.flushSequence()).isEqualTo(2);
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    @DisplayName("Should keep the deltas for the next flush when the database is unavailable and drop those of deleted tweets")
+    void shouldKeepTheDeltasForTheNextFlushWhenTheDatabaseIsUnavailableAndDropThoseOfDeletedTweets() {
+        when(jdbcTemplate.batchUpdate(anyString(), any(Collection.class), anyInt(), any(ParameterizedPreparedStatementSetter.class)))
+                .thenThrow(new CannotGetJdbcConnectionException("Connection refused"))
+                .thenThrow(new DataIntegrityViolationException("Tweet 1 does not exist"))
+                .thenThrow(new CannotGetJdbcConnectionException("Connection refused"));
+        engagementCounters.add(1L, Engagement.Type.LIKE, 3);
+        engagementCounters.add(2L, Engagement.Type.RETWEET, 2);
+
+        engagementCounters.flush();
+
+        assertThat(engagementCounters.unflushed(1L)).containsExactly(0, 0);
+        assertThat(engagementCounters.unflushed(2L)).containsExactly(0, 2);
+        assertThat(meterRegistry.get("tweets.engagement.flush.failed").counter().count()).isEqualTo(1);
+    }
+
+    @Test
+    @DisplayName("Should neither lose nor double count likes that race with flushes")
+    void shouldNeitherLoseNorDoubleCountLikesThatRaceWithFlushes() throws Exception {
+        var written = recordWrites();
+        int writers = 4;
+        int likesPerWriter = 50_000;
+
+        List<CompletableFuture<Void>> likes = new ArrayList<>();
+        for (int i = 0; i < writers; i++) {
+            likes.add(CompletableFuture.runAsync(() -> {
+                for (int like = 0; like < likesPerWriter; like++) {
+                    engagementCounters.add(like % 3 == 0 ? 1L : 2L, Engagement.Type.LIKE, 1);
+                }
+            }));
+        }
+        while (!likes.stream().allMatch(CompletableFuture::isDone)) {
+            engagementCounters.flush();
+        }
+        engagementCounters.flush();
+
+        assertThat(written.stream().mapToLong(row -> row[1]).sum()).isEqualTo((long) writers * likesPerWriter);
+        assertThat(engagementCounters.unflushed(1L)[0] + engagementCounters.unflushed(2L)[0]).isZero();
+    }
+
+    @SuppressWarnings("unchecked")
+    private List<long[]> recordWrites() throws Exception {
+        List<long[]> written = new ArrayList<>();
+        doAnswer(invocation -> {
+            Collection<?> rows = invocation.getArgument(1);
+            ParameterizedPreparedStatementSetter<Object> setter = invocation.getArgument(3);
+            for (Object row : rows) {
+                var values = new long[3];
+                var statement = mock(PreparedStatement.class);
+                doAnswer(set -> values[(int) set.getArgument(0) - 1] = set.getArgument(1)).when(statement).setLong(anyInt(), anyLong());
+                setter.setValues(statement, row);
+                written.add(values);
+            }
+            return null;
+        }).when(jdbcTemplate).batchUpdate(anyString(), any(Collection.class), anyInt(), any(ParameterizedPreparedStatementSetter.class));
+        return written;
+    }
+}
@@ -0,0 +1,100 @@
+package com.demo.simplified_twitter.service;
+
+import com.demo.simplified_twitter.datasource.ReadYourWrites;
+import com.demo.simplified_twitter.dto.EngagementDto;
+import com.demo.simplified_twitter.entities.Engagement;
+import com.demo.simplified_twitter.events.EngagementChangedEvent;
+import com.demo.simplified_twitter.exceptions.ResourceNotFoundException;
+import com.demo.simplified_twitter.repositories.EngagementRepository;
+import com.demo.simplified_twitter.repositories.TweetCountersRepository;
+import com.demo.simplified_twitter.repositories.projections.EngagementRow;
+import com.demo.simplified_twitter.repositories.projections.TweetCountersRow;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.security.oauth2.jwt.Jwt;
+import org.springframework.security.oauth2.server.resource.authentication.JwtAuthenticationToken;
+
+import java.time.Instant;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class EngagementServiceTests {
+    private final EngagementRepository engagementRepository = mock();
+    private final TweetCountersRepository tweetCountersRepository = mock();
+    private final EngagementCounters engagementCounters = mock();
+    private final ApplicationEventPublisher eventPublisher = mock();
+    private final EngagementService engagementService = new EngagementService(engagementRepository, tweetCountersRepository,
+            engagementCounters, eventPublisher, mock(ReadYourWrites.class), 500);
+
+    private final UUID userId = UUID.fromString("31565596-ec80-4f67-b4f0-f41e792296f7");
+
+    @Test
+    @DisplayName("Should count a like only once when the user likes the same tweet twice")
+    void shouldCountALikeOnlyOnceWhenTheUserLikesTheSameTweetTwice() {
+        when(engagementRepository.insertIfAbsent(1L, userId, "LIKE")).thenReturn(1, 0);
+
+        engagementService.engage(1L, Engagement.Type.LIKE, token(userId));
+        engagementService.engage(1L, Engagement.Type.LIKE, token(userId));
+
+        verify(eventPublisher, times(1)).publishEvent(any(EngagementChangedEvent.class));
+        verify(eventPublisher).publishEvent(new EngagementChangedEvent(1L, Engagement.Type.LIKE, 1));
+    }
+
+    @Test
+    @DisplayName("Should throw [ResourceNotFoundException] when the tweet does not exist")
+    void shouldThrowResourceNotFoundExceptionWhenTheTweetDoesNotExist() {
+        when(engagementRepository.insertIfAbsent(1L, userId, "RETWEET")).thenThrow(new DataIntegrityViolationException("fk_tweet"));
+
+        var exception = assertThrows(ResourceNotFoundException.class, () -> engagementService.engage(1L, Engagement.Type.RETWEET, token(userId)));
+
+        assertThat(exception.getMessage()).isEqualTo("Tweet with id: 1 not found");
+        verify(eventPublisher, times(0)).publishEvent(any(EngagementChangedEvent.class));
+    }
+
+    @Test
+    @DisplayName("Should merge the persisted counts with the unflushed deltas")
+    void shouldMergeThePersistedCountsWithTheUnflushedDeltas() {
+        when(tweetCountersRepository.findRowsByTweetIds(Set.of(1L, 2L))).thenReturn(List.of(new TweetCountersRow(1L, 10, 4)));
+        when(engagementRepository.findRowsByUserIdAndTweetIds(userId, Set.of(1L, 2L))).thenReturn(List.of(new EngagementRow(2L, Engagement.Type.LIKE)));
+        when(engagementCounters.unflushed(1L)).thenReturn(new long[]{2, -1});
+        when(engagementCounters.unflushed(2L)).thenReturn(new long[]{1, 0});
+
+        var engagement = engagementService.findEngagement(List.of(2L, 1L, 2L), token(userId));
+
+        assertThat(engagement).containsExactly(
+                new EngagementDto(2L, 1, 0, true, false),
+                new EngagementDto(1L, 12, 3, false, false));
+    }
+
+    @Test
+    @DisplayName("Should read the counters again when a flush commits between the table and the in-memory reads")
+    void shouldReadTheCountersAgainWhenAFlushCommitsBetweenTheTableAndTheInMemoryReads() {
+        when(engagementCounters.flushSequence()).thenReturn(0L, 2L, 2L, 2L);
+        when(tweetCountersRepository.findRowsByTweetIds(Set.of(1L)))
+                .thenReturn(List.of(new TweetCountersRow(1L, 10, 0)))
+                .thenReturn(List.of(new TweetCountersRow(1L, 12, 0)));
+        when(engagementCounters.unflushed(1L)).thenReturn(new long[]{0, 0});
+
+        var engagement = engagementService.findEngagement(List.of(1L), token(userId));
+
+        assertThat(engagement).containsExactly(new EngagementDto(1L, 12, 0, false, false));
+        verify(tweetCountersRepository, times(2)).findRowsByTweetIds(Set.of(1L));
+    }
+
+    private JwtAuthenticationToken token(UUID userId) {
+        Jwt jwt = new Jwt("token-value", Instant.now(), Instant.now().plusSeconds(1000L), Map.of("alg", "RS256"), Map.of("sub", userId.toString()));
+        return new JwtAuthenticationToken(jwt);
+    }
+}
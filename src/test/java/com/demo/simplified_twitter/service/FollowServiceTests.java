@@ -0,0 +1,95 @@
+package com.demo.simplified_twitter.service;
+
+import com.demo.simplified_twitter.entities.FollowId;
+import com.demo.simplified_twitter.events.FollowChangedEvent;
+import com.demo.simplified_twitter.exceptions.InvalidRequestException;
+import com.demo.simplified_twitter.exceptions.ResourceNotFoundException;
+import com.demo.simplified_twitter.repositories.FollowRepository;
+import com.demo.simplified_twitter.repositories.UserRepository;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.security.oauth2.jwt.Jwt;
+import org.springframework.security.oauth2.server.resource.authentication.JwtAuthenticationToken;
+
+import java.time.Instant;
+import java.util.Map;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class FollowServiceTests {
+    private final FollowRepository followRepository = mock();
+    private final UserRepository userRepository = mock();
+    private final ApplicationEventPublisher eventPublisher = mock();
+    private final FollowService followService = new FollowService(followRepository, userRepository, eventPublisher);
+
+    private final UUID followerId = UUID.fromString("31565596-ec80-4f67-b4f0-f41e792296f7");
+    private final UUID followedId = UUID.fromString("1646e721-f1f2-45c8-801b-38d5627d2044");
+
+    @Test
+    @DisplayName("Should follow an existing user")
+    void shouldFollowAnExistingUser() {
+        when(userRepository.existsById(followedId)).thenReturn(Boolean.TRUE);
+        when(followRepository.insertIfAbsent(followerId, followedId)).thenReturn(1);
+
+        followService.follow(followedId, token(followerId));
+
+        verify(followRepository, times(1)).insertIfAbsent(followerId, followedId);
+        verify(eventPublisher, times(1)).publishEvent(new FollowChangedEvent(followerId, followedId, true));
+    }
+
+    @Test
+    @DisplayName("Should not publish a follow change when the user already follows the other")
+    void shouldNotPublishAFollowChangeWhenTheUserAlreadyFollowsTheOther() {
+        when(userRepository.existsById(followedId)).thenReturn(Boolean.TRUE);
+        when(followRepository.insertIfAbsent(followerId, followedId)).thenReturn(0);
+
+        followService.follow(followedId, token(followerId));
+
+        verify(eventPublisher, times(0)).publishEvent(any(FollowChangedEvent.class));
+    }
+
+    @Test
+    @DisplayName("Should throw [InvalidRequestException] when user tries to follow themselves")
+    void shouldThrowInvalidRequestExceptionWhenUserTriesToFollowThemselves() {
+        var exception = assertThrows(InvalidRequestException.class, () -> followService.follow(followerId, token(followerId)));
+
+        assertThat(exception.getMessage()).isEqualTo("Users cannot follow themselves");
+        verify(followRepository, times(0)).insertIfAbsent(any(UUID.class), any(UUID.class));
+    }
+
+    @Test
+    @DisplayName("Should throw [ResourceNotFoundException] when followed user does not exist")
+    void shouldThrowResourceNotFoundExceptionWhenFollowedUserDoesNotExist() {
+        when(userRepository.existsById(followedId)).thenReturn(Boolean.FALSE);
+
+        var exception = assertThrows(ResourceNotFoundException.class, () -> followService.follow(followedId, token(followerId)));
+
+        assertThat(exception.getMessage()).isEqualTo("User with id: " + followedId + " not found");
+        verify(followRepository, times(0)).insertIfAbsent(any(UUID.class), any(UUID.class));
+    }
+
+    @Test
+    @DisplayName("Should unfollow a followed user")
+    void shouldUnfollowAFollowedUser() {
+        var followId = new FollowId(followerId, followedId);
+        when(followRepository.existsById(followId)).thenReturn(Boolean.TRUE);
+
+        followService.unfollow(followedId, token(followerId));
+
+        verify(followRepository, times(1)).deleteById(followId);
+        verify(eventPublisher, times(1)).publishEvent(new FollowChangedEvent(followerId, followedId, false));
+    }
+
+    private JwtAuthenticationToken token(UUID userId) {
+        Jwt jwt = new Jwt("token-value", Instant.now(), Instant.now().plusSeconds(1000L), Map.of("alg", "RS256"), Map.of("sub", userId.toString()));
+        return new JwtAuthenticationToken(jwt);
+    }
+}
@@ -0,0 +1,62 @@
+package com.demo.simplified_twitter.service;
+
+import com.demo.simplified_twitter.entities.JwtSigningKey;
+import com.demo.simplified_twitter.repositories.JwtSigningKeyRepository;
+import com.demo.simplified_twitter.security.JwtKeyStore.StoredKey;
+import com.demo.simplified_twitter.security.JwtSigningAlgorithm;
+import com.demo.simplified_twitter.security.KeyEncryptionKey;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Instant;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class JwtSigningKeyServiceTests {
+    private final JwtSigningKeyRepository jwtSigningKeyRepository = mock();
+    private final KeyEncryptionKey keyEncryptionKey = KeyEncryptionKey.generate();
+    private final JwtSigningKeyService jwtSigningKeyService = keyService(keyEncryptionKey);
+
+    private final byte[] privateKey = "pkcs8-private-key".getBytes(StandardCharsets.US_ASCII);
+    private final Instant activatesAt = Instant.parse("2024-11-01T10:00:00Z");
+
+    @Test
+    @DisplayName("Should only store the private key encrypted and decrypt it on load")
+    void shouldOnlyStoreThePrivateKeyEncryptedAndDecryptItOnLoad() {
+        jwtSigningKeyService.add(new StoredKey("key-1", 1, JwtSigningAlgorithm.ES256, new byte[]{1}, privateKey, activatesAt));
+
+        var saved = ArgumentCaptor.forClass(JwtSigningKey.class);
+        verify(jwtSigningKeyRepository).saveAndFlush(saved.capture());
+        assertThat(new String(saved.getValue().getEncryptedPrivateKey(), StandardCharsets.ISO_8859_1))
+                .doesNotContain("pkcs8-private-key");
+
+        when(jwtSigningKeyRepository.findAll()).thenReturn(List.of(saved.getValue()));
+
+        assertThat(jwtSigningKeyService.findAll()).singleElement()
+                .satisfies(key -> assertThat(key.privateKey()).isEqualTo(privateKey));
+    }
+
+    @Test
+    @DisplayName("Should refuse to load a private key under another key encryption key or another key id")
+    void shouldRefuseToLoadAPrivateKeyUnderAnotherKeyEncryptionKeyOrAnotherKeyId() {
+        var encrypted = keyEncryptionKey.encrypt(privateKey, "key-1");
+        when(jwtSigningKeyRepository.findAll())
+                .thenReturn(List.of(new JwtSigningKey("key-1", 1, "ES256", new byte[]{1}, encrypted, activatesAt)))
+                .thenReturn(List.of(new JwtSigningKey("key-2", 2, "ES256", new byte[]{1}, encrypted, activatesAt)));
+
+        assertThrows(IllegalStateException.class, () -> keyService(KeyEncryptionKey.generate()).findAll());
+        assertThrows(IllegalStateException.class, jwtSigningKeyService::findAll);
+    }
+
+    private JwtSigningKeyService keyService(KeyEncryptionKey keyEncryptionKey) {
+        return new JwtSigningKeyService(jwtSigningKeyRepository, mock(PlatformTransactionManager.class), keyEncryptionKey);
+    }
+}
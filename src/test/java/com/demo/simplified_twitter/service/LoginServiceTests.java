@@ -1,7 +1,10 @@
 package com.demo.simplified_twitter.service;
 
+import com.demo.simplified_twitter.datasource.ReadYourWrites;
 import com.demo.simplified_twitter.dto.JwtDto;
 import com.demo.simplified_twitter.dto.LoginRequestDto;
+import com.demo.simplified_twitter.dto.RefreshTokenDto;
+import com.demo.simplified_twitter.dto.RefreshTokenRequestDto;
 import com.demo.simplified_twitter.dto.RoleDto;
 import com.demo.simplified_twitter.dto.UserDto;
 import com.demo.simplified_twitter.entities.Role;
@@ -9,11 +12,15 @@ import com.demo.simplified_twitter.entities.User;
 import com.demo.simplified_twitter.exceptions.BadCredentialsException;
 import com.demo.simplified_twitter.faker.LoginRequestFaker;
 import com.demo.simplified_twitter.faker.UserEntityFaker;
+import com.demo.simplified_twitter.repositories.projections.RefreshTokenRow;
 import org.junit.jupiter.api.DisplayName;
 import org.junit.jupiter.api.Test;
 import org.springframework.security.crypto.password.PasswordEncoder;
 
+import java.time.Duration;
+import java.time.Instant;
 import java.util.Set;
+import java.util.UUID;
 import java.util.stream.Collectors;
 
 import static org.assertj.core.api.Assertions.assertThat;
@@ -27,8 +34,10 @@ import static org.mockito.Mockito.when;
 class LoginServiceTests {
     private final UserService userService = mock();
     private final TokenService tokenService = mock();
+    private final RefreshTokenService refreshTokenService = mock();
     private final PasswordEncoder passwordEncoder = mock();
-    private final LoginService loginService = new LoginService(userService, tokenService, passwordEncoder);
+    private final LoginService loginService = new LoginService(userService, tokenService, refreshTokenService,
+            new ReadYourWrites(Duration.ofSeconds(5), 100), passwordEncoder);
 
     @Test
     @DisplayName("Should return a valid jwt access token when existing user is informed")
@@ -37,14 +46,15 @@ class LoginServiceTests {
         User userEntity = UserEntityFaker.fakeUserWithId(Role.Values.ADMIN);
         Set<RoleDto> roles = userEntity.getRoles().stream().map(role -> new RoleDto(role.getId(), role.getName())).collect(Collectors.toSet());
         UserDto user = new UserDto(userEntity.getId(), userEntity.getUsername(), userEntity.getPassword(), roles);
-        JwtDto expectedJwtToBeReturned = new JwtDto("accessToken", 86400L);
+        RefreshTokenDto refreshToken = new RefreshTokenDto("refreshToken", 1209600L);
         when(userService.findByUsername(loginRequest.username())).thenReturn(user);
         when(passwordEncoder.matches(any(String.class), any(String.class))).thenReturn(Boolean.TRUE);
-        when(tokenService.getJwt(user)).thenReturn(expectedJwtToBeReturned);
+        when(tokenService.getJwt(user)).thenReturn(new JwtDto("accessToken", 900L));
+        when(refreshTokenService.issue(user.id())).thenReturn(refreshToken);
 
         var jwt = loginService.login(loginRequest);
 
-        assertThat(jwt).isEqualTo(expectedJwtToBeReturned);
+        assertThat(jwt).isEqualTo(new JwtDto("accessToken", 900L, "refreshToken", 1209600L));
         verify(userService, times(1)).findByUsername(loginRequest.username());
     }
 
@@ -64,4 +74,22 @@ class LoginServiceTests {
         verify(userService, times(1)).findByUsername(invalidLoginRequest.username());
         verify(tokenService, times(0)).getJwt(user);
     }
+
+    @Test
+    @DisplayName("Should rotate the refresh token within its family without checking the password")
+    void shouldRotateTheRefreshTokenWithinItsFamilyWithoutCheckingThePassword() {
+        User userEntity = UserEntityFaker.fakeUserWithId(Role.Values.BASIC);
+        Set<RoleDto> roles = userEntity.getRoles().stream().map(role -> new RoleDto(role.getId(), role.getName())).collect(Collectors.toSet());
+        UserDto user = new UserDto(userEntity.getId(), userEntity.getUsername(), userEntity.getPassword(), roles);
+        UUID familyId = UUID.randomUUID();
+        when(refreshTokenService.consume("refreshToken")).thenReturn(new RefreshTokenRow(familyId, user.id(), Instant.now().plusSeconds(60)));
+        when(userService.findById(user.id())).thenReturn(user);
+        when(tokenService.getJwt(user)).thenReturn(new JwtDto("accessToken", 900L));
+        when(refreshTokenService.issue(user.id(), familyId)).thenReturn(new RefreshTokenDto("rotatedRefreshToken", 1209600L));
+
+        var jwt = loginService.refresh(new RefreshTokenRequestDto("refreshToken"));
+
+        assertThat(jwt).isEqualTo(new JwtDto("accessToken", 900L, "rotatedRefreshToken", 1209600L));
+        verify(passwordEncoder, times(0)).matches(any(String.class), any(String.class));
+    }
 }
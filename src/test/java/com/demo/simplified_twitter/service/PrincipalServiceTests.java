@@ -0,0 +1,59 @@
+package com.demo.simplified_twitter.service;
+
+import com.demo.simplified_twitter.dto.PrincipalDto;
+import com.demo.simplified_twitter.exceptions.ResourceNotFoundException;
+import com.demo.simplified_twitter.repositories.UserRepository;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.security.oauth2.jwt.Jwt;
+import org.springframework.security.oauth2.server.resource.authentication.JwtAuthenticationToken;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Map;
+import java.util.Optional;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class PrincipalServiceTests {
+    private final UserRepository userRepository = mock();
+    private final PrincipalService principalService = new PrincipalService(userRepository, new SimpleMeterRegistry(), 100, Duration.ofMinutes(5));
+
+    @Test
+    @DisplayName("Should reload the principal after it is evicted")
+    void shouldReloadThePrincipalAfterItIsEvicted() {
+        UUID userId = UUID.randomUUID();
+        when(userRepository.findPrincipalById(userId)).thenReturn(Optional.of(new PrincipalDto(userId, "gustavo")));
+
+        var principal = principalService.resolve(token(userId));
+        principalService.resolve(token(userId));
+        principalService.evict(userId);
+        principalService.resolve(token(userId));
+
+        assertThat(principal).isEqualTo(new PrincipalDto(userId, "gustavo"));
+        verify(userRepository, times(2)).findPrincipalById(userId);
+    }
+
+    @Test
+    @DisplayName("Should not cache unknown users")
+    void shouldNotCacheUnknownUsers() {
+        UUID userId = UUID.randomUUID();
+        when(userRepository.findPrincipalById(userId)).thenReturn(Optional.empty());
+
+        assertThrows(ResourceNotFoundException.class, () -> principalService.resolve(token(userId)));
+        assertThrows(ResourceNotFoundException.class, () -> principalService.resolve(token(userId)));
+
+        verify(userRepository, times(2)).findPrincipalById(userId);
+    }
+
+    private JwtAuthenticationToken token(UUID userId) {
+        return new JwtAuthenticationToken(new Jwt("token-value", Instant.now(), Instant.now().plusSeconds(1000L), Map.of("alg", "RS256"), Map.of("sub", userId.toString())));
+    }
+}
@@ -0,0 +1,85 @@
+package com.demo.simplified_twitter.service;
+
+import com.demo.simplified_twitter.entities.RefreshToken;
+import com.demo.simplified_twitter.exceptions.BadCredentialsException;
+import com.demo.simplified_twitter.repositories.RefreshTokenRepository;
+import com.demo.simplified_twitter.repositories.UserRepository;
+import com.demo.simplified_twitter.repositories.projections.RefreshTokenRow;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Optional;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.argThat;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class RefreshTokenServiceTests {
+    private final RefreshTokenRepository refreshTokenRepository = mock();
+    private final UserRepository userRepository = mock();
+    private final RefreshTokenService refreshTokenService = new RefreshTokenService(refreshTokenRepository, userRepository, 1209600L, 100,
+            Duration.ofHours(1));
+
+    @Test
+    @DisplayName("Should consume an issued refresh token without reading it back from the database")
+    void shouldConsumeAnIssuedRefreshTokenWithoutReadingItBackFromTheDatabase() {
+        UUID userId = UUID.randomUUID();
+        UUID familyId = UUID.randomUUID();
+        when(refreshTokenRepository.markUsed(anyString(), any(Instant.class))).thenReturn(1);
+
+        var refreshToken = refreshTokenService.issue(userId, familyId);
+        var row = refreshTokenService.consume(refreshToken.value());
+
+        assertThat(refreshToken.expiresIn()).isEqualTo(1209600L);
+        assertThat(row.userId()).isEqualTo(userId);
+        assertThat(row.familyId()).isEqualTo(familyId);
+        verify(refreshTokenRepository, times(1)).save(any(RefreshToken.class));
+        verify(refreshTokenRepository, never()).findRowByTokenHash(anyString());
+    }
+
+    @Test
+    @DisplayName("Should revoke the token family when a used refresh token is presented again")
+    void shouldRevokeTheTokenFamilyWhenAUsedRefreshTokenIsPresentedAgain() {
+        UUID familyId = UUID.randomUUID();
+        when(refreshTokenRepository.findRowByTokenHash(anyString()))
+                .thenReturn(Optional.of(new RefreshTokenRow(familyId, UUID.randomUUID(), Instant.now().plusSeconds(60))));
+        when(refreshTokenRepository.markUsed(anyString(), any(Instant.class))).thenReturn(0);
+
+        var exception = assertThrows(BadCredentialsException.class, () -> refreshTokenService.consume("stolen"));
+
+        assertThat(exception.getMessage()).isEqualTo("Refresh token is invalid");
+        verify(refreshTokenRepository, times(1)).revokeFamily(familyId);
+    }
+
+    @Test
+    @DisplayName("Should throw [BadCredentialsException] when the refresh token is expired")
+    void shouldThrowBadCredentialsExceptionWhenTheRefreshTokenIsExpired() {
+        when(refreshTokenRepository.findRowByTokenHash(anyString()))
+                .thenReturn(Optional.of(new RefreshTokenRow(UUID.randomUUID(), UUID.randomUUID(), Instant.now().minusSeconds(1))));
+
+        assertThrows(BadCredentialsException.class, () -> refreshTokenService.consume("expired"));
+        verify(refreshTokenRepository, never()).markUsed(anyString(), any(Instant.class));
+    }
+
+    @Test
+    @DisplayName("Should purge the refresh tokens that expired before now")
+    void shouldPurgeTheRefreshTokensThatExpiredBeforeNow() {
+        var before = Instant.now();
+        when(refreshTokenRepository.deleteExpired(any(Instant.class))).thenReturn(3);
+
+        int purged = refreshTokenService.purgeExpired();
+
+        assertThat(purged).isEqualTo(3);
+        verify(refreshTokenRepository, times(1)).deleteExpired(argThat(now -> !now.isBefore(before) && !now.isAfter(Instant.now())));
+    }
+}
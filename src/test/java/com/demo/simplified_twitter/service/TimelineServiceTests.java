@@ -0,0 +1,175 @@
+package com.demo.simplified_twitter.service;
+
+import com.demo.simplified_twitter.dto.TweetResponseDto;
+import com.demo.simplified_twitter.events.FollowChangedEvent;
+import com.demo.simplified_twitter.events.TweetCreatedEvent;
+import com.demo.simplified_twitter.repositories.FollowRepository;
+import com.demo.simplified_twitter.repositories.TweetRepository;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.data.domain.Limit;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Collection;
+import java.util.List;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyCollection;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class TimelineServiceTests {
+    private final TweetRepository tweetRepository = mock();
+    private final FollowRepository followRepository = mock();
+    private final TimelineService timelineService = timelineService(Duration.ofMinutes(10));
+
+    private final UUID reader = UUID.fromString("31565596-ec80-4f67-b4f0-f41e792296f7");
+    private final UUID author = UUID.fromString("1646e721-f1f2-45c8-801b-38d5627d2044");
+
+    @Test
+    @DisplayName("Should build the timeline buffer from followed users on the first read")
+    void shouldBuildTheTimelineBufferFromFollowedUsersOnTheFirstRead() {
+        when(followRepository.findFollowedIds(reader)).thenReturn(List.of(author));
+        when(tweetRepository.findLatestIdsByUserIds(anyCollection(), eq(Limit.of(3)))).thenReturn(List.of(3L, 2L, 1L));
+        when(tweetRepository.findViewsByIds(List.of(3L, 2L))).thenReturn(List.of(view(2L), view(3L)));
+
+        var timeline = timelineService.getHomeTimeline(reader, null, 2);
+
+        assertThat(timeline).extracting(TweetResponseDto::id).containsExactly(3L, 2L);
+        verify(tweetRepository, times(1)).findLatestIdsByUserIds(anyCollection(), eq(Limit.of(3)));
+    }
+
+    @Test
+    @DisplayName("Should drop buffered tweets that were deleted and fill the page with older ones")
+    void shouldDropBufferedTweetsThatWereDeletedAndFillThePageWithOlderOnes() {
+        when(followRepository.findFollowedIds(reader)).thenReturn(List.of(author));
+        when(tweetRepository.findLatestIdsByUserIds(anyCollection(), eq(Limit.of(3)))).thenReturn(List.of(3L, 2L, 1L));
+        when(tweetRepository.findViewsByIds(List.of(3L, 2L))).thenReturn(List.of(view(2L)));
+        when(tweetRepository.findViewsByIds(List.of(2L, 1L))).thenReturn(List.of(view(1L), view(2L)));
+
+        var timeline = timelineService.getHomeTimeline(reader, null, 2);
+        var beforeTheDeletedTweet = timelineService.getHomeTimeline(reader, 4L, 2);
+
+        assertThat(timeline).extracting(TweetResponseDto::id).containsExactly(2L, 1L);
+        assertThat(beforeTheDeletedTweet).extracting(TweetResponseDto::id).containsExactly(2L, 1L);
+        verify(tweetRepository, times(1)).findViewsByIds(List.of(3L, 2L));
+    }
+
+    @Test
+    @DisplayName("Should push new tweets into the buffers of active followers")
+    void shouldPushNewTweetsIntoTheBuffersOfActiveFollowers() {
+        when(followRepository.findFollowedIds(reader)).thenReturn(List.of(author));
+        when(tweetRepository.findLatestIdsByUserIds(anyCollection(), eq(Limit.of(3)))).thenReturn(List.of(1L));
+        when(tweetRepository.findViewsByIds(List.of(1L))).thenReturn(List.of(view(1L)));
+        timelineService.getHomeTimeline(reader, null, 10);
+        when(followRepository.findFollowerIds(author, Limit.of(3))).thenReturn(List.of(reader));
+        when(tweetRepository.findViewsByIds(List.of(5L, 1L))).thenReturn(List.of(view(1L), view(5L)));
+
+        timelineService.onTweetCreated(new TweetCreatedEvent(view(5L)));
+        var timeline = timelineService.getHomeTimeline(reader, null, 10);
+
+        assertThat(timeline).extracting(TweetResponseDto::id).containsExactly(5L, 1L);
+        verify(tweetRepository, times(1)).findLatestIdsByUserIds(anyCollection(), any(Limit.class));
+    }
+
+    @Test
+    @DisplayName("Should pull tweets at read time from authors with too many followers")
+    void shouldPullTweetsAtReadTimeFromAuthorsWithTooManyFollowers() {
+        when(followRepository.findFollowedIds(reader)).thenReturn(List.of(author));
+        when(tweetRepository.findLatestIdsByUserIds(anyCollection(), eq(Limit.of(3)))).thenReturn(List.of());
+        timelineService.getHomeTimeline(reader, null, 10);
+        when(followRepository.findFollowerIds(author, Limit.of(3))).thenReturn(List.of(reader, UUID.randomUUID(), UUID.randomUUID()));
+        when(tweetRepository.findIdsByUserIdsCreatedAfter(anyCollection(), any(Instant.class), eq(Limit.of(3)))).thenReturn(List.of(7L));
+        when(tweetRepository.findViewsByIds(List.of(7L))).thenReturn(List.of(view(7L)));
+
+        timelineService.onTweetCreated(new TweetCreatedEvent(view(7L)));
+        var timeline = timelineService.getHomeTimeline(reader, null, 10);
+
+        assertThat(timeline).extracting(TweetResponseDto::id).containsExactly(7L);
+    }
+
+    @Test
+    @DisplayName("Should rebuild the timeline buffer after the user follows someone")
+    void shouldRebuildTheTimelineBufferAfterTheUserFollowsSomeone() {
+        when(followRepository.findFollowedIds(reader)).thenReturn(List.of());
+        when(tweetRepository.findLatestIdsByUserIds(anyCollection(), any(Limit.class))).thenReturn(List.of());
+        timelineService.getHomeTimeline(reader, null, 10);
+
+        timelineService.onFollowChanged(new FollowChangedEvent(reader, author, true));
+        timelineService.getHomeTimeline(reader, null, 10);
+
+        verify(followRepository, times(2)).findFollowedIds(reader);
+        verify(tweetRepository, times(0)).findViewsByIds(anyList());
+    }
+
+    @Test
+    @DisplayName("Should pick up tweets that were posted through another node on the next read")
+    void shouldPickUpTweetsThatWerePostedThroughAnotherNodeOnTheNextRead() {
+        when(followRepository.findFollowedIds(reader)).thenReturn(List.of(author));
+        when(tweetRepository.findLatestIdsByUserIds(anyCollection(), eq(Limit.of(3)))).thenReturn(List.of(1L));
+        when(tweetRepository.findViewsByIds(List.of(1L))).thenReturn(List.of(view(1L)));
+        timelineService.getHomeTimeline(reader, null, 10);
+        when(tweetRepository.findIdsByUserIdsCreatedAfter(anyCollection(), any(Instant.class), eq(Limit.of(3)))).thenReturn(List.of(9L));
+        when(tweetRepository.findViewsByIds(List.of(9L, 1L))).thenReturn(List.of(view(1L), view(9L)));
+
+        var timeline = timelineService.getHomeTimeline(reader, null, 10);
+
+        assertThat(timeline).extracting(TweetResponseDto::id).containsExactly(9L, 1L);
+        verify(tweetRepository, times(1)).findLatestIdsByUserIds(anyCollection(), any(Limit.class));
+    }
+
+    @Test
+    @DisplayName("Should rebuild the timeline buffer when more tweets arrived elsewhere than it holds")
+    void shouldRebuildTheTimelineBufferWhenMoreTweetsArrivedElsewhereThanItHolds() {
+        when(followRepository.findFollowedIds(reader)).thenReturn(List.of(author));
+        when(tweetRepository.findLatestIdsByUserIds(anyCollection(), eq(Limit.of(3)))).thenReturn(List.of(1L))
+                .thenReturn(List.of(9L, 8L, 7L));
+        when(tweetRepository.findViewsByIds(List.of(1L))).thenReturn(List.of(view(1L)));
+        timelineService.getHomeTimeline(reader, null, 1);
+        when(tweetRepository.findIdsByUserIdsCreatedAfter(anyCollection(), any(Instant.class), eq(Limit.of(3)))).thenReturn(List.of(9L, 8L, 7L));
+        when(tweetRepository.findViewsByIds(List.of(9L))).thenReturn(List.of(view(9L)));
+
+        var timeline = timelineService.getHomeTimeline(reader, null, 1);
+
+        assertThat(timeline).extracting(TweetResponseDto::id).containsExactly(9L);
+        verify(tweetRepository, times(2)).findLatestIdsByUserIds(anyCollection(), eq(Limit.of(3)));
+    }
+
+    @Test
+    @DisplayName("Should count the followers of a pulled author again once the recheck interval has passed")
+    void shouldCountTheFollowersOfAPulledAuthorAgainOnceTheRecheckIntervalHasPassed() {
+        var recheckingService = timelineService(Duration.ZERO);
+        when(followRepository.findFollowedIds(reader)).thenReturn(List.of(author));
+        when(tweetRepository.findLatestIdsByUserIds(anyCollection(), eq(Limit.of(3)))).thenReturn(List.of());
+        recheckingService.getHomeTimeline(reader, null, 10);
+        when(followRepository.findFollowerIds(author, Limit.of(3)))
+                .thenReturn(List.of(reader, UUID.randomUUID(), UUID.randomUUID()))
+                .thenReturn(List.of(reader));
+        when(tweetRepository.findViewsByIds(List.of(8L))).thenReturn(List.of(view(8L)));
+
+        recheckingService.onTweetCreated(new TweetCreatedEvent(view(7L)));
+        recheckingService.onTweetCreated(new TweetCreatedEvent(view(8L)));
+        var timeline = recheckingService.getHomeTimeline(reader, null, 10);
+
+        assertThat(timeline).extracting(TweetResponseDto::id).containsExactly(8L);
+        verify(followRepository, times(2)).findFollowerIds(author, Limit.of(3));
+    }
+
+    private TimelineService timelineService(Duration fanOutRecheckInterval) {
+        return new TimelineService(tweetRepository, followRepository, mock(PlatformTransactionManager.class), new SimpleMeterRegistry(),
+                3, Duration.ofSeconds(5), 100, Duration.ofMinutes(30), 2, fanOutRecheckInterval);
+    }
+
+    private TweetResponseDto view(Long id) {
+        return new TweetResponseDto(id, author, "gustavo", "Hello World " + id, Instant.now());
+    }
+}
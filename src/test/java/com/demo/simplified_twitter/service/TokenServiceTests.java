@@ -21,7 +21,9 @@ import java.util.stream.Collectors;
 
 import static org.assertj.core.api.Assertions.assertThat;
 import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.argThat;
 import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 
 class TokenServiceTests {
@@ -55,6 +57,7 @@ class TokenServiceTests {
         JwtDto jwtDto = tokenService.getJwt(user);
 
         assertThat(jwtDto.accessToken()).isEqualTo(tokenValue);
+        verify(jwtEncoder).encode(argThat(parameters -> parameters.getClaims().getId() != null));
     }
 
 }
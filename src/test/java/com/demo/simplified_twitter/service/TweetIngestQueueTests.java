@@ -0,0 +1,85 @@
+package com.demo.simplified_twitter.service;
+
+import com.demo.simplified_twitter.events.TweetBatchCreatedEvent;
+import com.demo.simplified_twitter.exceptions.ServiceUnavailableException;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.ParameterizedPreparedStatementSetter;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.CountDownLatch;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+
+class TweetIngestQueueTests {
+    private final JdbcTemplate jdbcTemplate = mock();
+    private final PlatformTransactionManager transactionManager = mock();
+    private final ApplicationEventPublisher eventPublisher = mock();
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+
+    @Test
+    @DisplayName("Should flush queued tweets in a single batch on shutdown")
+    @SuppressWarnings("unchecked")
+    void shouldFlushQueuedTweetsInASingleBatchOnShutdown() {
+        var tweetIngestQueue = new TweetIngestQueue(jdbcTemplate, transactionManager, eventPublisher, meterRegistry,
+                true, 10, 100, Duration.ofMillis(200), Duration.ofSeconds(10), false);
+        tweetIngestQueue.start();
+        UUID userId = UUID.randomUUID();
+
+        tweetIngestQueue.enqueue(tweet(1L, userId));
+        tweetIngestQueue.enqueue(tweet(2L, userId));
+        tweetIngestQueue.stop();
+
+        verify(jdbcTemplate, times(1)).batchUpdate(anyString(), anyList(), anyInt(), any(ParameterizedPreparedStatementSetter.class));
+        verify(eventPublisher, times(1)).publishEvent(any(TweetBatchCreatedEvent.class));
+        assertThat(meterRegistry.get("tweets.ingest.flush.size").summary().totalAmount()).isEqualTo(2);
+        assertThat(meterRegistry.get("tweets.ingest.queue.depth").gauge().value()).isZero();
+    }
+
+    @Test
+    @DisplayName("Should throw [ServiceUnavailableException] when the queue is full")
+    @SuppressWarnings("unchecked")
+    void shouldThrowServiceUnavailableExceptionWhenTheQueueIsFull() throws InterruptedException {
+        var flushStarted = new CountDownLatch(1);
+        var releaseFlush = new CountDownLatch(1);
+        doAnswer(invocation -> {
+            flushStarted.countDown();
+            releaseFlush.await();
+            return null;
+        }).when(jdbcTemplate).batchUpdate(anyString(), anyList(), anyInt(), any(ParameterizedPreparedStatementSetter.class));
+        var tweetIngestQueue = new TweetIngestQueue(jdbcTemplate, transactionManager, eventPublisher, meterRegistry,
+                true, 1, 1, Duration.ofMillis(5), Duration.ofSeconds(10), false);
+        tweetIngestQueue.start();
+        UUID userId = UUID.randomUUID();
+        tweetIngestQueue.enqueue(tweet(1L, userId));
+        flushStarted.await();
+        tweetIngestQueue.enqueue(tweet(2L, userId));
+
+        var exception = assertThrows(ServiceUnavailableException.class, () -> tweetIngestQueue.enqueue(tweet(3L, userId)));
+        releaseFlush.countDown();
+        tweetIngestQueue.stop();
+
+        assertThat(exception.getMessage()).isEqualTo("Tweet ingest queue is full, try again later");
+        assertThat(meterRegistry.get("tweets.ingest.rejected").counter().count()).isEqualTo(1);
+    }
+
+    private QueuedTweet tweet(Long id, UUID userId) {
+        return new QueuedTweet(id, userId, "gustavo", "Hello World", Instant.now());
+    }
+}
@@ -1,22 +1,36 @@
 package com.demo.simplified_twitter.service;
 
+import com.demo.simplified_twitter.dto.BatchTweetItemResultDto;
 import com.demo.simplified_twitter.dto.CreateTweetRequestDto;
+import com.demo.simplified_twitter.dto.PrincipalDto;
 import com.demo.simplified_twitter.dto.RoleDto;
+import com.demo.simplified_twitter.dto.TweetResponseDto;
 import com.demo.simplified_twitter.dto.UserDto;
 import com.demo.simplified_twitter.entities.Role;
 import com.demo.simplified_twitter.entities.Tweet;
 import com.demo.simplified_twitter.entities.User;
+import com.demo.simplified_twitter.events.TweetBatchCreatedEvent;
+import com.demo.simplified_twitter.events.TweetCreatedEvent;
+import com.demo.simplified_twitter.exceptions.InvalidRequestException;
 import com.demo.simplified_twitter.exceptions.ResourceNotFoundException;
 import com.demo.simplified_twitter.faker.UserEntityFaker;
+import com.demo.simplified_twitter.repositories.TweetIdGenerator;
 import com.demo.simplified_twitter.repositories.TweetRepository;
 import com.demo.simplified_twitter.repositories.UserRepository;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
 import org.junit.jupiter.api.DisplayName;
 import org.junit.jupiter.api.Test;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.data.domain.Limit;
 import org.springframework.security.oauth2.jwt.Jwt;
 import org.springframework.security.oauth2.jwt.JwtClaimsSet;
 import org.springframework.security.oauth2.server.resource.authentication.JwtAuthenticationToken;
 
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
 import java.time.Instant;
+import java.util.Base64;
+import java.util.List;
 import java.util.Map;
 import java.util.Optional;
 import java.util.Set;
@@ -25,7 +39,9 @@ import java.util.stream.Collectors;
 
 import static org.assertj.core.api.Assertions.assertThat;
 import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.mockito.AdditionalAnswers.returnsFirstArg;
 import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyList;
 import static org.mockito.Mockito.mock;
 import static org.mockito.Mockito.times;
 import static org.mockito.Mockito.verify;
@@ -35,7 +51,11 @@ class TweetServiceTests {
     private final String applicationName = "simplified-twitter";
     private final TweetRepository tweetRepository = mock();
     private final UserRepository userRepository = mock();
-    private final TweetService tweetService = new TweetService(tweetRepository, userRepository);
+    private final ApplicationEventPublisher eventPublisher = mock();
+    private final TweetIngestQueue tweetIngestQueue = mock();
+    private final TweetIdGenerator tweetIdGenerator = mock();
+    private final PrincipalService principalService = new PrincipalService(userRepository, new SimpleMeterRegistry(), 100, Duration.ofMinutes(5));
+    private final TweetService tweetService = new TweetService(tweetRepository, userRepository, principalService, eventPublisher, tweetIngestQueue, tweetIdGenerator, 2);
 
     @Test
     @DisplayName("Should create a tweet for a user when user is authenticated")
@@ -59,12 +79,17 @@ class TweetServiceTests {
         Jwt jwt = new Jwt(tokenValue, Instant.now(), Instant.now().plusSeconds(1000L), Map.of("alg", "RS256"), claims.getClaims());
         JwtAuthenticationToken jwtAuthenticationToken = new JwtAuthenticationToken(jwt);
         CreateTweetRequestDto createTweetRequest = new CreateTweetRequestDto("Hello World");
-        when(userRepository.findById(UUID.fromString(jwtAuthenticationToken.getName()))).thenReturn(Optional.of(userEntity));
+        when(userRepository.findPrincipalById(userEntity.getId())).thenReturn(Optional.of(new PrincipalDto(userEntity.getId(), userEntity.getUsername())));
+        when(userRepository.getReferenceById(userEntity.getId())).thenReturn(userEntity);
+        when(tweetRepository.saveAndFlush(any(Tweet.class))).then(returnsFirstArg());
 
+        tweetService.createTweet(createTweetRequest, jwtAuthenticationToken);
         tweetService.createTweet(createTweetRequest, jwtAuthenticationToken);
 
-        verify(userRepository, times(1)).findById(UUID.fromString(jwtAuthenticationToken.getName()));
-        verify(tweetRepository, times(1)).save(new Tweet(null, userEntity, createTweetRequest.content()));
+        verify(userRepository, times(1)).findPrincipalById(UUID.fromString(jwtAuthenticationToken.getName()));
+        verify(userRepository, times(0)).findById(any(UUID.class));
+        verify(tweetRepository, times(2)).saveAndFlush(new Tweet(null, userEntity, createTweetRequest.content()));
+        verify(eventPublisher, times(2)).publishEvent(any(TweetCreatedEvent.class));
     }
 
     @Test
@@ -80,12 +105,137 @@ class TweetServiceTests {
         Jwt jwt = new Jwt("token-value", Instant.now(), Instant.now(), Map.of("alg", "RS256"), claims.getClaims());
         JwtAuthenticationToken jwtAuthenticationToken = new JwtAuthenticationToken(jwt);
         CreateTweetRequestDto createTweetRequest = new CreateTweetRequestDto("Hello World");
-        when(userRepository.findById(nonExistingUserId)).thenReturn(Optional.empty());
+        when(userRepository.findPrincipalById(nonExistingUserId)).thenReturn(Optional.empty());
 
         var exception = assertThrows(ResourceNotFoundException.class, () -> tweetService.createTweet(createTweetRequest, jwtAuthenticationToken));
 
         assertThat(exception.getMessage()).isEqualTo("User with id: " + nonExistingUserId + " not found");
-        verify(userRepository, times(1)).findById(UUID.fromString(jwtAuthenticationToken.getName()));
-        verify(tweetRepository, times(0)).save(any(Tweet.class));
+        verify(userRepository, times(1)).findPrincipalById(UUID.fromString(jwtAuthenticationToken.getName()));
+        verify(tweetRepository, times(0)).saveAndFlush(any(Tweet.class));
+        verify(eventPublisher, times(0)).publishEvent(any(TweetCreatedEvent.class));
+    }
+
+    @Test
+    @DisplayName("Should return a next cursor when there are more tweets than the page size")
+    void shouldReturnANextCursorWhenThereAreMoreTweetsThanThePageSize() {
+        UUID userId = UUID.randomUUID();
+        Instant now = Instant.now();
+        var tweets = List.of(
+                new TweetResponseDto(3L, userId, "gustavo", "third", now),
+                new TweetResponseDto(2L, userId, "gustavo", "second", now),
+                new TweetResponseDto(1L, userId, "gustavo", "first", now.minusSeconds(1)));
+        when(tweetRepository.findViewsByUserId(userId, Limit.of(3))).thenReturn(tweets);
+        when(tweetRepository.findViewsByUserIdAfter(userId, now, 2L, Limit.of(3))).thenReturn(tweets.subList(2, 3));
+
+        var firstPage = tweetService.findUserTweets(userId, null, 2);
+        var secondPage = tweetService.findUserTweets(userId, firstPage.nextCursor(), 2);
+
+        assertThat(firstPage.items()).extracting(TweetResponseDto::id).containsExactly(3L, 2L);
+        assertThat(firstPage.nextCursor()).isNotNull();
+        assertThat(secondPage.items()).extracting(TweetResponseDto::id).containsExactly(1L);
+        assertThat(secondPage.nextCursor()).isNull();
+    }
+
+    @Test
+    @DisplayName("Should throw [InvalidRequestException] when an invalid cursor is informed")
+    void shouldThrowInvalidRequestExceptionWhenAnInvalidCursorIsInformed() {
+        var exception = assertThrows(InvalidRequestException.class, () -> tweetService.findLatestTweets("not-a-cursor", 20));
+
+        assertThat(exception.getMessage()).isEqualTo("Invalid cursor: not-a-cursor");
+        verify(tweetRepository, times(0)).findLatestViewsAfter(any(Instant.class), any(Long.class), any(Limit.class));
+    }
+
+    @Test
+    @DisplayName("Should throw [InvalidRequestException] when the cursor holds an instant out of range")
+    void shouldThrowInvalidRequestExceptionWhenTheCursorHoldsAnInstantOutOfRange() {
+        var cursor = Base64.getUrlEncoder().withoutPadding().encodeToString("999999999999999999:0:1".getBytes(StandardCharsets.UTF_8));
+
+        var exception = assertThrows(InvalidRequestException.class, () -> tweetService.findLatestTweets(cursor, 20));
+
+        assertThat(exception.getMessage()).isEqualTo("Invalid cursor: " + cursor);
+    }
+
+    @Test
+    @DisplayName("Should persist valid tweets of a batch and reject the invalid ones")
+    void shouldPersistValidTweetsOfABatchAndRejectTheInvalidOnes() {
+        User userEntity = UserEntityFaker.fakeUserWithId(Role.Values.BASIC);
+        JwtAuthenticationToken jwtAuthenticationToken = token(userEntity.getId());
+        when(userRepository.findPrincipalById(userEntity.getId())).thenReturn(Optional.of(new PrincipalDto(userEntity.getId(), userEntity.getUsername())));
+        when(userRepository.getReferenceById(userEntity.getId())).thenReturn(userEntity);
+        when(tweetRepository.saveAllAndFlush(anyList())).thenAnswer(invocation -> {
+            List<Tweet> tweets = invocation.getArgument(0);
+            tweets.forEach(tweet -> tweet.setId(10L));
+            return tweets;
+        });
+
+        var response = tweetService.createTweets(List.of(new CreateTweetRequestDto(" "), new CreateTweetRequestDto("Hello World")), jwtAuthenticationToken);
+
+        assertThat(response.created()).isEqualTo(1);
+        assertThat(response.rejected()).isEqualTo(1);
+        assertThat(response.results()).containsExactly(
+                new BatchTweetItemResultDto(0, null, "REJECTED", "Content must not be blank"),
+                new BatchTweetItemResultDto(1, 10L, "CREATED", null));
+        verify(tweetRepository, times(1)).saveAllAndFlush(List.of(new Tweet(10L, userEntity, "Hello World")));
+        verify(eventPublisher, times(1)).publishEvent(any(TweetBatchCreatedEvent.class));
+    }
+
+    @Test
+    @DisplayName("Should throw [InvalidRequestException] when batch exceeds the maximum size")
+    void shouldThrowInvalidRequestExceptionWhenBatchExceedsTheMaximumSize() {
+        var requests = List.of(new CreateTweetRequestDto("1"), new CreateTweetRequestDto("2"), new CreateTweetRequestDto("3"));
+
+        var exception = assertThrows(InvalidRequestException.class, () -> tweetService.createTweets(requests, token(UUID.randomUUID())));
+
+        assertThat(exception.getMessage()).isEqualTo("Batch must contain at most 2 tweets");
+        verify(tweetRepository, times(0)).saveAllAndFlush(anyList());
+    }
+
+    @Test
+    @DisplayName("Should enqueue a tweet with a pre-allocated id when async ingest is used")
+    void shouldEnqueueATweetWithAPreAllocatedIdWhenAsyncIngestIsUsed() {
+        User userEntity = UserEntityFaker.fakeUserWithId(Role.Values.BASIC);
+        when(userRepository.findPrincipalById(userEntity.getId())).thenReturn(Optional.of(new PrincipalDto(userEntity.getId(), userEntity.getUsername())));
+        when(tweetIdGenerator.nextId()).thenReturn(42L);
+
+        var acceptedTweet = tweetService.enqueueTweet(new CreateTweetRequestDto("Hello World"), token(userEntity.getId()));
+
+        assertThat(acceptedTweet.id()).isEqualTo(42L);
+        verify(tweetIngestQueue, times(1)).enqueue(any(QueuedTweet.class));
+        verify(tweetRepository, times(0)).saveAndFlush(any(Tweet.class));
+    }
+
+    @Test
+    @DisplayName("Should throw [ResourceNotFoundException] when deleting a tweet that does not belong to the user")
+    void shouldThrowResourceNotFoundExceptionWhenDeletingATweetThatDoesNotBelongToTheUser() {
+        UUID userId = UUID.randomUUID();
+        when(tweetRepository.deleteByIdAndUserId(1L, userId)).thenReturn(0);
+
+        var exception = assertThrows(ResourceNotFoundException.class, () -> tweetService.deleteTweet(1L, token(userId)));
+
+        assertThat(exception.getMessage()).isEqualTo("Tweet with id: 1 not found for user with id: " + userId);
+        verify(userRepository, times(0)).findPrincipalById(any(UUID.class));
+    }
+
+    @Test
+    @DisplayName("Should delete the distinct tweet ids of a user in a single statement")
+    void shouldDeleteTheDistinctTweetIdsOfAUserInASingleStatement() {
+        UUID userId = UUID.randomUUID();
+        when(tweetRepository.deleteByIdsAndUserId(Set.of(1L, 2L), userId)).thenReturn(1);
+
+        var response = tweetService.deleteTweets(List.of(1L, 2L, 1L), token(userId));
+
+        assertThat(response.requested()).isEqualTo(2);
+        assertThat(response.deleted()).isEqualTo(1);
+        verify(tweetRepository, times(1)).deleteByIdsAndUserId(Set.of(1L, 2L), userId);
+    }
+
+    private JwtAuthenticationToken token(UUID userId) {
+        var claims = JwtClaimsSet.builder()
+                .issuer(this.applicationName)
+                .subject(userId.toString())
+                .issuedAt(Instant.now())
+                .expiresAt(Instant.now().plusSeconds(1000L))
+                .build();
+        return new JwtAuthenticationToken(new Jwt("token-value", Instant.now(), Instant.now().plusSeconds(1000L), Map.of("alg", "RS256"), claims.getClaims()));
     }
 }
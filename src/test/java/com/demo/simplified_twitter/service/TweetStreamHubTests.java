@@ -0,0 +1,197 @@
+package com.demo.simplified_twitter.service;
+
+import com.demo.simplified_twitter.dto.TweetResponseDto;
+import com.demo.simplified_twitter.events.FollowChangedEvent;
+import com.demo.simplified_twitter.events.TweetCreatedEvent;
+import com.demo.simplified_twitter.exceptions.ServiceUnavailableException;
+import com.demo.simplified_twitter.repositories.FollowRepository;
+import com.demo.simplified_twitter.security.TokenDenylist;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.io.IOException;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.function.BooleanSupplier;
+import java.util.stream.Collectors;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+class TweetStreamHubTests {
+    private final FollowRepository followRepository = mock();
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+    private final TokenDenylist tokenDenylist = new TokenDenylist(100, 0.01);
+
+    private final UUID reader = UUID.fromString("31565596-ec80-4f67-b4f0-f41e792296f7");
+    private final UUID author = UUID.fromString("1646e721-f1f2-45c8-801b-38d5627d2044");
+    private final UUID stranger = UUID.fromString("a2f1c2de-57a4-4c1e-9d0b-2ab1c38f4e11");
+
+    private TweetStreamHub hub;
+
+    @AfterEach
+    void tearDown() {
+        hub.stop();
+    }
+
+    @Test
+    @DisplayName("Should push tweets of followed users and of the reader only")
+    void shouldPushTweetsOfFollowedUsersAndOfTheReaderOnly() throws Exception {
+        hub = startHub(16, 10);
+        when(followRepository.findFollowedIds(reader)).thenReturn(List.of(author));
+        var sink = new RecordingSink();
+        hub.open(reader, null, sink, false);
+
+        hub.onTweetCreated(new TweetCreatedEvent(view(1L, author)));
+        hub.onTweetCreated(new TweetCreatedEvent(view(2L, stranger)));
+        hub.onTweetCreated(new TweetCreatedEvent(view(3L, reader)));
+        hub.onFollowChanged(new FollowChangedEvent(reader, stranger, true));
+        hub.onTweetCreated(new TweetCreatedEvent(view(4L, stranger)));
+
+        assertThat(sink.await(4)).containsExactly(
+                ":heartbeat\n\n",
+                "id:1\nevent:tweet\ndata:" + json(view(1L, author)) + "\n\n",
+                "id:3\nevent:tweet\ndata:" + json(view(3L, reader)) + "\n\n",
+                "id:4\nevent:tweet\ndata:" + json(view(4L, stranger)) + "\n\n");
+    }
+
+    @Test
+    @DisplayName("Should drop the buffer and ask for a resync when the client falls behind")
+    void shouldDropTheBufferAndAskForAResyncWhenTheClientFallsBehind() throws Exception {
+        hub = startHub(2, 10);
+        when(followRepository.findFollowedIds(reader)).thenReturn(List.of(author));
+        var release = new CountDownLatch(1);
+        var sink = new RecordingSink(release);
+        hub.open(reader, null, sink, false);
+        sink.await(1);
+
+        for (long id = 1; id <= 3; id++) {
+            hub.publish(view(id, author));
+        }
+        release.countDown();
+        sink.await(2);
+        hub.publish(view(4L, author));
+
+        assertThat(sink.await(3)).containsExactly(
+                ":heartbeat\n\n",
+                "event:resync\ndata:overflow\n\n",
+                "id:4\nevent:tweet\ndata:" + json(view(4L, author)) + "\n\n");
+        assertThat(meterRegistry.get("tweets.stream.dropped").counter().count()).isEqualTo(3);
+    }
+
+    @Test
+    @DisplayName("Should reject connections over the limit and free the slot of a failed connection")
+    void shouldRejectConnectionsOverTheLimitAndFreeTheSlotOfAFailedConnection() throws Exception {
+        hub = startHub(16, 1);
+        when(followRepository.findFollowedIds(reader)).thenReturn(List.of(author));
+        var broken = new RecordingSink() {
+            @Override
+            public void send(SseEmitter.SseEventBuilder event) throws IOException {
+                throw new IOException("Broken pipe");
+            }
+        };
+        var connection = hub.open(reader, null, broken, false);
+
+        var exception = assertThrows(ServiceUnavailableException.class, () -> hub.open(reader, null, new RecordingSink(), false));
+        await(() -> broken.completed);
+
+        assertThat(exception.getMessage()).isEqualTo("Too many open tweet streams, try again later");
+        assertThat(connection.isClosed()).isTrue();
+        assertThat(meterRegistry.get("tweets.stream.connections").gauge().value()).isZero();
+        hub.open(reader, null, new RecordingSink(), true);
+    }
+
+    @Test
+    @DisplayName("Should close the streams of a revoked token at the next heartbeat")
+    void shouldCloseTheStreamsOfARevokedTokenAtTheNextHeartbeat() throws Exception {
+        hub = startHub(16, 10);
+        when(followRepository.findFollowedIds(reader)).thenReturn(List.of(author));
+        var revoked = new RecordingSink();
+        var revokedConnection = hub.open(reader, "revoked-token", revoked, false);
+        var other = new RecordingSink();
+        var otherConnection = hub.open(reader, "other-token", other, false);
+        revoked.await(1);
+        other.await(1);
+
+        tokenDenylist.add("revoked-token", Instant.now().plusSeconds(900));
+        hub.heartbeat();
+        await(() -> revoked.completed);
+
+        assertThat(revokedConnection.isClosed()).isTrue();
+        assertThat(otherConnection.isClosed()).isFalse();
+        assertThat(meterRegistry.get("tweets.stream.connections").gauge().value()).isEqualTo(1);
+    }
+
+    private TweetStreamHub startHub(int bufferSize, int maxConnections) {
+        var started = new TweetStreamHub(followRepository, objectMapper(), tokenDenylist, meterRegistry, Executors.newSingleThreadExecutor(),
+                bufferSize, maxConnections, Duration.ofHours(1), Duration.ofMinutes(30));
+        started.start();
+        return started;
+    }
+
+    private TweetResponseDto view(Long id, UUID userId) {
+        return new TweetResponseDto(id, userId, "gustavo", "tweet " + id, Instant.parse("2024-01-01T00:00:00Z"));
+    }
+
+    private String json(TweetResponseDto tweet) throws Exception {
+        return objectMapper().writeValueAsString(tweet);
+    }
+
+    private static ObjectMapper objectMapper() {
+        return new ObjectMapper().registerModule(new JavaTimeModule());
+    }
+
+    private static void await(BooleanSupplier condition) throws InterruptedException {
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+        while (!condition.getAsBoolean() && System.nanoTime() < deadline) {
+            Thread.sleep(5);
+        }
+    }
+
+    private static class RecordingSink implements TweetStreamHub.Sink {
+        private final List<String> events = new CopyOnWriteArrayList<>();
+        private final CountDownLatch release;
+        volatile boolean completed;
+
+        RecordingSink() {
+            this(new CountDownLatch(0));
+        }
+
+        RecordingSink(CountDownLatch release) {
+            this.release = release;
+        }
+
+        @Override
+        public void send(SseEmitter.SseEventBuilder event) throws IOException {
+            events.add(event.build().stream().map(data -> data.getData().toString()).collect(Collectors.joining()));
+            try {
+                release.await(5, TimeUnit.SECONDS);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }
+
+        @Override
+        public void complete() {
+            completed = true;
+        }
+
+        List<String> await(int count) throws InterruptedException {
+            TweetStreamHubTests.await(() -> events.size() >= count);
+            return events;
+        }
+    }
+}
@@ -1,5 +1,6 @@
 package com.demo.simplified_twitter.service;
 
+import com.demo.simplified_twitter.datasource.ReadYourWrites;
 import com.demo.simplified_twitter.dto.CreateUserRequestDto;
 import com.demo.simplified_twitter.dto.RoleDto;
 import com.demo.simplified_twitter.dto.UserDto;
@@ -9,39 +10,56 @@ import com.demo.simplified_twitter.exceptions.BadCredentialsException;
 import com.demo.simplified_twitter.exceptions.ResourceAlreadyExistsException;
 import com.demo.simplified_twitter.exceptions.ResourceNotFoundException;
 import com.demo.simplified_twitter.faker.CreateUserRequestFaker;
-import com.demo.simplified_twitter.faker.RoleEntityFaker;
 import com.demo.simplified_twitter.faker.UserEntityFaker;
 import com.demo.simplified_twitter.repositories.RoleRepository;
 import com.demo.simplified_twitter.repositories.UserRepository;
+import com.demo.simplified_twitter.repositories.projections.UserCredentialsRow;
+import com.demo.simplified_twitter.repositories.projections.UserRoleRow;
+import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.DisplayName;
 import org.junit.jupiter.api.Test;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.data.domain.Limit;
 import org.springframework.security.crypto.password.PasswordEncoder;
 
+import java.time.Duration;
 import java.util.List;
-import java.util.Optional;
 import java.util.Set;
+import java.util.UUID;
+import java.util.stream.Stream;
 
 import static org.assertj.core.api.Assertions.assertThat;
 import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.Mockito.mock;
 import static org.mockito.Mockito.times;
 import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.verifyNoInteractions;
 import static org.mockito.Mockito.when;
 
 class UserServiceTests {
     private final UserRepository userRepository = mock();
     private final RoleRepository roleRepository = mock();
+    private final RoleRegistry roleRegistry = new RoleRegistry(roleRepository);
+    private final UsernameFilter usernameFilter = mock();
+    private final ReadYourWrites readYourWrites = new ReadYourWrites(Duration.ofSeconds(5), 100);
     private final PasswordEncoder passwordEncoder = mock();
-    private final UserService userService = new UserService(userRepository, roleRepository, passwordEncoder);
+    private final UserService userService = new UserService(userRepository, roleRegistry, usernameFilter, readYourWrites, passwordEncoder, false);
+
+    @BeforeEach
+    void setUp() {
+        when(usernameFilter.mightExist(any(String.class))).thenReturn(true);
+        when(roleRepository.findAll()).thenReturn(List.of(role(1L, Role.Values.ADMIN), role(2L, Role.Values.BASIC)));
+        roleRegistry.refresh();
+    }
 
     @Test
     @DisplayName("Should return a user when filtering by an existing username")
     void shouldReturnAUserWhenFilteringByAnExistingUserName() {
         String existingUsername = "gustavo";
-        Role adminRole = RoleEntityFaker.fakeRole(Role.Values.ADMIN);
         User user = UserEntityFaker.fakeUserWithId(Role.Values.ADMIN);
-        when(userRepository.findByUsername(existingUsername)).thenReturn(Optional.of(user));
-        when(roleRepository.findByName(Role.Values.ADMIN.name())).thenReturn(Optional.of(adminRole));
+        when(userRepository.findCredentialRowsByUsername(existingUsername))
+                .thenReturn(List.of(new UserCredentialsRow(user.getId(), user.getUsername(), user.getPassword(), 1L, Role.Values.ADMIN.name())));
         UserDto expectedUserToBeReturned = new UserDto(user.getId(), user.getUsername(), user.getPassword(), Set.of(new RoleDto(1L, Role.Values.ADMIN.name())));
 
         UserDto userDto = userService.findByUsername(existingUsername);
@@ -49,11 +67,22 @@ class UserServiceTests {
         assertThat(userDto).isEqualTo(expectedUserToBeReturned);
     }
 
+    @Test
+    @DisplayName("Should return a user without roles when its only row has no role")
+    void shouldReturnAUserWithoutRolesWhenItsOnlyRowHasNoRole() {
+        var userId = UUID.randomUUID();
+        when(userRepository.findCredentialRowsById(userId)).thenReturn(List.of(new UserCredentialsRow(userId, "gustavo", "password", null, null)));
+
+        UserDto userDto = userService.findById(userId);
+
+        assertThat(userDto).isEqualTo(new UserDto(userId, "gustavo", "password", Set.of()));
+    }
+
     @Test
     @DisplayName("Should throw [BadCredentialsException] when invalid username is informed")
     void shouldThrowBadCredentialsExceptionWhenInvalidUsernameIsInformed() {
         String invalidUsername = "gustavo";
-        when(userRepository.findByUsername(invalidUsername)).thenReturn(Optional.empty());
+        when(userRepository.findCredentialRowsByUsername(invalidUsername)).thenReturn(List.of());
 
         var exception = assertThrows(BadCredentialsException.class, () -> userService.findByUsername(invalidUsername));
 
@@ -64,41 +93,39 @@ class UserServiceTests {
     @DisplayName("Should create a new user when valid data is informed")
     void shouldCreateANewUserWhenValidDataIsInformed() {
         var role = Role.Values.BASIC;
-        Role basicRole = RoleEntityFaker.fakeRole(role);
         CreateUserRequestDto createUserRequest = CreateUserRequestFaker.fakeCreateUserRequest();
         User userBeforeSaving = UserEntityFaker.fakeUserWithoutId(role);
         User userAfterSaving = UserEntityFaker.fakeUserWithId(role);
         String encodedPassword = "$2a$12$va2eeKAPHk3vzozIeA4uWuehAulFh/6X9JTrFXSMTMm2sDlZ7BXVW";
-        when(userRepository.findByUsername(createUserRequest.username())).thenReturn(Optional.empty());
-        when(roleRepository.findByName(role.name())).thenReturn(Optional.of(basicRole));
+        when(userRepository.existsByUsername(createUserRequest.username())).thenReturn(false);
         when(passwordEncoder.encode(createUserRequest.password())).thenReturn(encodedPassword);
         when(userRepository.save(userBeforeSaving)).thenReturn(userAfterSaving);
 
         userService.createUser(createUserRequest);
 
         verify(userRepository, times(1)).save(userBeforeSaving);
-        verify(roleRepository, times(1)).findByName(role.name());
+        verify(roleRepository, times(1)).findAll();
+        assertThat(readYourWrites.recentlyWrote(ReadYourWrites.usernameSubject(createUserRequest.username()))).isTrue();
     }
 
     @Test
     @DisplayName("Should throw [ResourceAlreadyExistsException] when creating a user with existing username")
     void shouldThrowResourceAlreadyExistsWhenCreatingAUserWithExistingUsername() {
-        User existingUser = UserEntityFaker.fakeUserWithId(Role.Values.ADMIN);
         CreateUserRequestDto createUserRequest = CreateUserRequestFaker.fakeCreateUserRequest();
-        when(userRepository.findByUsername(createUserRequest.username())).thenReturn(Optional.of(existingUser));
+        when(userRepository.existsByUsername(createUserRequest.username())).thenReturn(true);
 
         var exception = assertThrows(ResourceAlreadyExistsException.class, () -> userService.createUser(createUserRequest));
 
-        assertThat(exception.getMessage()).isEqualTo("Username: " + existingUser.getUsername() + " already exists");
+        assertThat(exception.getMessage()).isEqualTo("Username: " + createUserRequest.username() + " already exists");
     }
 
     @Test
-    @DisplayName("Should throw [ResourceNotFoundException] when non existing role name is filtered")
-    void shouldThrowResourceNotFoundExceptionWhenNonExistingRoleNameIsFiltered() {
-        String invalidRoleName = "SUPER_USER";
+    @DisplayName("Should throw [ResourceNotFoundException] when the basic role is not registered")
+    void shouldThrowResourceNotFoundExceptionWhenTheBasicRoleIsNotRegistered() {
         CreateUserRequestDto createUserRequest = CreateUserRequestFaker.fakeCreateUserRequest();
-        when(userRepository.findByUsername(createUserRequest.username())).thenReturn(Optional.empty());
-        when(roleRepository.findByName(invalidRoleName)).thenReturn(Optional.empty());
+        when(roleRepository.findAll()).thenReturn(List.of(role(1L, Role.Values.ADMIN)));
+        roleRegistry.refresh();
+        when(userRepository.existsByUsername(createUserRequest.username())).thenReturn(false);
 
         var exception = assertThrows(ResourceNotFoundException.class, () -> userService.createUser(createUserRequest));
 
@@ -109,10 +136,96 @@ class UserServiceTests {
     @DisplayName("Should return all users")
     void shouldReturnAllUsers() {
         List<User> fakeUsers = UserEntityFaker.fakeManyUsersWithId(Role.Values.ADMIN);
-        when(userRepository.findAll()).thenReturn(fakeUsers);
+        when(userRepository.streamAllRoleRows()).thenReturn(fakeUsers.stream().map(this::toRow));
 
         var users = userService.findAllUsers();
 
         assertThat(users.size()).isEqualTo(fakeUsers.size());
+        verify(userRepository, times(0)).findAll();
+    }
+
+    @Test
+    @DisplayName("Should group role rows of the same user into a single user")
+    void shouldGroupRoleRowsOfTheSameUserIntoASingleUser() {
+        UUID userId = UUID.randomUUID();
+        when(userRepository.streamAllRoleRows()).thenReturn(Stream.of(
+                new UserRoleRow(userId, "gustavo", 1L, Role.Values.ADMIN.name()),
+                new UserRoleRow(userId, "gustavo", 2L, Role.Values.BASIC.name())));
+
+        var users = userService.findAllUsers();
+
+        assertThat(users).hasSize(1);
+        assertThat(users.get(0).role()).containsExactlyInAnyOrder(new RoleDto(1L, "ADMIN"), new RoleDto(2L, "BASIC"));
+    }
+
+    @Test
+    @DisplayName("Should return a page of users with a cursor to the next page")
+    void shouldReturnAPageOfUsersWithACursorToTheNextPage() {
+        List<User> fakeUsers = UserEntityFaker.fakeManyUsersWithId(Role.Values.ADMIN);
+        var ids = fakeUsers.stream().map(User::getId).toList();
+        when(userRepository.findPageIds(Limit.of(3))).thenReturn(ids.subList(0, 3));
+        when(userRepository.findRoleRowsByIds(ids.subList(0, 2))).thenReturn(fakeUsers.subList(0, 2).stream().map(this::toRow).toList());
+        when(userRepository.findPageIdsAfter(ids.get(1), Limit.of(3))).thenReturn(List.of());
+
+        var page = userService.findUsers(null, 2);
+        var nextPage = userService.findUsers(page.nextCursor(), 2);
+
+        assertThat(page.items()).hasSize(2);
+        assertThat(page.nextCursor()).isNotNull();
+        assertThat(nextPage.items()).isEmpty();
+        assertThat(nextPage.nextCursor()).isNull();
+    }
+
+    @Test
+    @DisplayName("Should resolve role names from the registry when only role ids are fetched")
+    void shouldResolveRoleNamesFromTheRegistryWhenOnlyRoleIdsAreFetched() {
+        var idOnlyUserService = new UserService(userRepository, roleRegistry, usernameFilter, readYourWrites, passwordEncoder, true);
+        User user = UserEntityFaker.fakeUserWithId(Role.Values.ADMIN);
+        when(userRepository.findCredentialRoleIdsByUsername(user.getUsername())).thenReturn(List.of(
+                new UserCredentialsRow(user.getId(), user.getUsername(), user.getPassword(), 1L),
+                new UserCredentialsRow(user.getId(), user.getUsername(), user.getPassword(), 2L)));
+
+        UserDto userDto = idOnlyUserService.findByUsername(user.getUsername());
+
+        assertThat(userDto.roles()).containsExactlyInAnyOrder(new RoleDto(1L, "ADMIN"), new RoleDto(2L, "BASIC"));
+        verify(userRepository, times(0)).findCredentialRowsByUsername(user.getUsername());
+    }
+
+    @Test
+    @DisplayName("Should reject a login for a username the filter has never seen without querying the database")
+    void shouldRejectALoginForAUsernameTheFilterHasNeverSeenWithoutQueryingTheDatabase() {
+        when(usernameFilter.mightExist("unknown")).thenReturn(false);
+
+        var exception = assertThrows(BadCredentialsException.class, () -> userService.findByUsername("unknown"));
+
+        assertThat(exception.getMessage()).isEqualTo("User or password is invalid");
+        verifyNoInteractions(userRepository);
+    }
+
+    @Test
+    @DisplayName("Should throw [ResourceAlreadyExistsException] when the unique constraint rejects a new username")
+    void shouldThrowResourceAlreadyExistsExceptionWhenTheUniqueConstraintRejectsANewUsername() {
+        CreateUserRequestDto createUserRequest = CreateUserRequestFaker.fakeCreateUserRequest();
+        when(usernameFilter.mightExist(createUserRequest.username())).thenReturn(false);
+        when(userRepository.save(any(User.class))).thenThrow(new DataIntegrityViolationException("duplicate key"));
+        when(userRepository.existsByUsername(createUserRequest.username())).thenReturn(true);
+
+        var exception = assertThrows(ResourceAlreadyExistsException.class, () -> userService.createUser(createUserRequest));
+
+        assertThat(exception.getMessage()).isEqualTo("Username: " + createUserRequest.username() + " already exists");
+        verify(userRepository, times(1)).existsByUsername(createUserRequest.username());
+        verify(usernameFilter, times(1)).add(createUserRequest.username());
+    }
+
+    private Role role(Long id, Role.Values value) {
+        Role role = new Role();
+        role.setId(id);
+        role.setName(value.name());
+        return role;
+    }
+
+    private UserRoleRow toRow(User user) {
+        var role = user.getRoles().iterator().next();
+        return new UserRoleRow(user.getId(), user.getUsername(), role.getId(), role.getName());
     }
 }
@@ -0,0 +1,64 @@
+package com.demo.simplified_twitter.service;
+
+import com.demo.simplified_twitter.datasource.ReadYourWrites;
+import com.demo.simplified_twitter.repositories.UserRepository;
+import com.demo.simplified_twitter.repositories.projections.UserCredentialsRow;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.List;
+import java.util.UUID;
+import java.util.stream.Stream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+class UsernameFilterTests {
+    private final UserRepository userRepository = mock();
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+    private final UsernameFilter usernameFilter = new UsernameFilter(userRepository, mock(PlatformTransactionManager.class),
+            meterRegistry, true, 1000, 0.01, Duration.ofMinutes(15), Duration.ofSeconds(5));
+
+    @Test
+    @DisplayName("Should keep usernames added while the filter is being rebuilt")
+    void shouldKeepUsernamesAddedWhileTheFilterIsBeingRebuilt() {
+        assertThat(usernameFilter.mightExist("gustavo")).isTrue();
+        when(userRepository.count()).thenReturn(2L);
+        when(userRepository.streamAllUsernames()).thenAnswer(invocation -> {
+            usernameFilter.add("created-during-rebuild");
+            return Stream.of("gustavo", "admin");
+        });
+
+        usernameFilter.rebuild();
+
+        assertThat(usernameFilter.mightExist("gustavo")).isTrue();
+        assertThat(usernameFilter.mightExist("admin")).isTrue();
+        assertThat(usernameFilter.mightExist("created-during-rebuild")).isTrue();
+        assertThat(usernameFilter.mightExist("nobody")).isFalse();
+        assertThat(meterRegistry.get("users.username.filter").tag("result", "negative").counter().count()).isEqualTo(1);
+    }
+
+    @Test
+    @DisplayName("Should let a user created behind the filter's back log in after the next sync")
+    void shouldLetAUserCreatedBehindTheFiltersBackLogInAfterTheNextSync() {
+        var userService = new UserService(userRepository, null, usernameFilter, new ReadYourWrites(Duration.ofSeconds(5), 1),
+                null, false);
+        when(userRepository.count()).thenReturn(1L);
+        when(userRepository.streamAllUsernames()).thenReturn(Stream.of("gustavo"));
+        usernameFilter.rebuild();
+        var userId = UUID.randomUUID();
+        when(userRepository.findCredentialRowsByUsername("created-on-another-node"))
+                .thenReturn(List.of(new UserCredentialsRow(userId, "created-on-another-node", "password", 2L, "BASIC")));
+        when(userRepository.findUsernamesCreatedAfter(any(Instant.class))).thenReturn(List.of("created-on-another-node"));
+
+        usernameFilter.sync();
+
+        assertThat(userService.findByUsername("created-on-another-node").id()).isEqualTo(userId);
+    }
+}